@@ -1,12 +1,13 @@
 package io.github.mightguy.spellcheckconsole;
 
 import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.api.StringDistance;
 import io.github.mightguy.spellcheck.symspell.common.Composition;
 import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
 import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
 import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.StringDistanceFactory;
 import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
-import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
 import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
 import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
@@ -30,18 +31,15 @@ public class SpellCheckerConsole {
 
     SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder().build();
 
-    WeightedDamerauLevenshteinDistance weightedDamerauLevenshteinDistance =
-        new WeightedDamerauLevenshteinDistance(spellCheckSettings.getDeletionWeight(),
-            spellCheckSettings.getInsertionWeight(), spellCheckSettings.getReplaceWeight(),
-            spellCheckSettings.getTranspositionWeight(), null);
+    StringDistance stringDistance = StringDistanceFactory.create(spellCheckSettings, null);
     dataHolder = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
 
-    symSpellCheck = new SymSpellCheck(dataHolder, weightedDamerauLevenshteinDistance,
-        spellCheckSettings);
+    symSpellCheck = new SymSpellCheck(dataHolder, stringDistance, spellCheckSettings);
     loadUniGramFile(
         new File(classLoader.getResource("frequency_dictionary_en_82_765.txt").getFile()));
     loadBiGramFile(
         new File(classLoader.getResource("frequency_bigramdictionary_en_243_342.txt").getFile()));
+    dataHolder.freeze();
 
     return false;
   }
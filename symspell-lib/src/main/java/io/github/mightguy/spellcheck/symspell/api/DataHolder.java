@@ -3,6 +3,10 @@ package io.github.mightguy.spellcheck.symspell.api;
 
 import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -12,12 +16,98 @@ public interface DataHolder {
 
   public boolean addItem(DictionaryItem dictionaryItem) throws SpellCheckException;
 
+  /**
+   * Add the items in order, the same as calling {@link #addItem(DictionaryItem)} for each of
+   * them. Implementations may build the index in parallel.
+   *
+   * @param dictionaryItems the items to add
+   * @return number of items added as new correctly spelled words
+   */
+  default int addItems(Collection<DictionaryItem> dictionaryItems) throws SpellCheckException {
+    int added = 0;
+    for (DictionaryItem dictionaryItem : dictionaryItems) {
+      if (addItem(dictionaryItem)) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Subtract the frequency of an item added before, the reverse of {@link
+   * #addItem(DictionaryItem)}, for dictionaries built from sources whose counts can be taken back.
+   * A word whose frequency drops below the count threshold is no longer a correctly spelled word,
+   * and an item whose frequency drops to 0 is forgotten.
+   *
+   * @param dictionaryItem the item and the frequency to subtract
+   * @return true if the word was removed as a correctly spelled word
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DELETE_ERROR} if the holder
+   *                             cannot remove items
+   */
+  default boolean removeItem(DictionaryItem dictionaryItem) throws SpellCheckException {
+    throw new SpellCheckException(SpellCheckExceptionCode.DELETE_ERROR,
+        getClass().getSimpleName() + " does not support removing items");
+  }
+
+  /**
+   * Compact the index into its read optimized form once the dictionary is loaded. Items can
+   * still be added afterwards, but may be slower to add.
+   */
+  default void freeze() {
+  }
+
   public Double getItemFrequency(String term) throws SpellCheckException;
 
   public Double getItemFrequencyBiGram(String term) throws SpellCheckException;
 
   public String[] getDeletes(String key) throws SpellCheckException;
 
+  /**
+   * Return the suggestions of the delete held in the chars [0, length) of the sequence, so
+   * candidates built in a reusable buffer can be probed without creating a String.
+   *
+   * @param key    the chars of the delete
+   * @param length number of chars of the delete
+   * @return the suggestions, or null if there are none
+   */
+  default String[] getDeletes(CharSequence key, int length) throws SpellCheckException {
+    return getDeletes(key.subSequence(0, length).toString());
+  }
+
+  /**
+   * Copy the suggestions of the delete held in the chars [0, length) of the sequence into the
+   * buffer, so the probes of a lookup reuse one array instead of getting a new one each. Nothing is
+   * copied if the buffer is too small, the caller retries with a buffer of the returned size.
+   *
+   * @param key    the chars of the delete
+   * @param length number of chars of the delete
+   * @param buffer array to copy the suggestions to, from index 0
+   * @return number of suggestions, 0 if there are none
+   */
+  default int getDeletes(CharSequence key, int length, String[] buffer)
+      throws SpellCheckException {
+    String[] suggestions = getDeletes(key, length);
+    if (suggestions == null) {
+      return 0;
+    }
+    if (suggestions.length <= buffer.length) {
+      System.arraycopy(suggestions, 0, buffer, 0, suggestions.length);
+    }
+    return suggestions.length;
+  }
+
+  /**
+   * Whether some correctly spelled word of the dictionary starts with the prefix. Word
+   * segmentation uses it to stop looking up ever longer parts once they can only be unknown
+   * words.
+   *
+   * @param prefix the chars, in the case of the terms
+   * @return false if no word starts with the prefix, true if some does or the holder cannot tell
+   */
+  default boolean isTermPrefix(String prefix) {
+    return true;
+  }
+
   public int getSize();
 
   public boolean clear() throws SpellCheckException;
@@ -27,4 +117,39 @@ public interface DataHolder {
   public void addExclusionItems(Map<String, String> values);
 
   public String getExclusionItem(String key);
+
+  /**
+   * Number of modifications of the dictionary so far. Every call that may change the results of
+   * a lookup increments it, so caches of lookup results can detect that they are stale.
+   *
+   * @return the modification count, always 0 for holders that cannot be modified
+   */
+  default long getModificationCount() {
+    return 0;
+  }
+
+  /**
+   * Export the built index, including the deletes and the settings used to build it, so it can be
+   * reloaded with {@link #load(InputStream)} instead of being rebuilt. The stream is not closed.
+   *
+   * @param out stream to write the index to
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} on failure
+   */
+  default void save(OutputStream out) throws SpellCheckException {
+    throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+        getClass().getSimpleName() + " does not support saving the index");
+  }
+
+  /**
+   * Replace the content of this data holder with an index exported by {@link
+   * #save(OutputStream)}. The index must have been built with the same hash function and
+   * settings. The stream is not closed.
+   *
+   * @param in stream to read the index from
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} on failure
+   */
+  default void load(InputStream in) throws SpellCheckException {
+    throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+        getClass().getSimpleName() + " does not support loading an index");
+  }
 }
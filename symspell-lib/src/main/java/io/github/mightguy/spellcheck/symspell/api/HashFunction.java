@@ -13,12 +13,28 @@ public interface HashFunction {
 
 
   /**
-   * Return the hash of the bytes as long.
+   * Return the hash of the String as Long.
    *
    * @param data the String to be hashed
    * @return the generated  hash value
    */
   public Long hash(String data);
 
+  /**
+   * Return the hash of the chars in [from, to) of the sequence. The data holders hash every term
+   * and delete through this method, so the result must only depend on the chars of the slice.
+   * Implementations should hash the UTF-16 chars directly, the default copies the slice to a
+   * String and delegates to {@link #hash(String)}. The values may differ from those of {@link
+   * #hash(String)}, saved indexes and snapshots record a check value of this method and are
+   * rejected by a hash function returning other values.
+   *
+   * @param data the chars to be hashed
+   * @param from index of the first char
+   * @param to   index after the last char
+   * @return the generated hash value
+   */
+  default long hash(CharSequence data, int from, int to) {
+    return hash(data.subSequence(from, to).toString());
+  }
 
 }
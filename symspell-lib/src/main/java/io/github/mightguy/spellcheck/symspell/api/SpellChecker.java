@@ -2,11 +2,23 @@
 package io.github.mightguy.spellcheck.symspell.api;
 
 import io.github.mightguy.spellcheck.symspell.common.Composition;
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+import io.github.mightguy.spellcheck.symspell.common.LookupResult;
 import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
 import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
 import io.github.mightguy.spellcheck.symspell.common.Verbosity;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -17,7 +29,10 @@ import lombok.Getter;
 @Getter
 public abstract class SpellChecker {
 
-  protected DataHolder dataHolder;
+  /**
+   * The dictionary, replaced as a whole by {@link #swapDataHolder(DataHolder)}.
+   */
+  protected volatile DataHolder dataHolder;
 
   protected StringDistance stringDistance;
 
@@ -35,6 +50,97 @@ public abstract class SpellChecker {
   public abstract List<SuggestionItem> lookup(String word, Verbosity verbosity, double editDistance)
       throws SpellCheckException;
 
+  /**
+   * Lookup the word within the time budget of the options. Spell checkers which cannot stop early
+   * ignore the budget and never truncate.
+   *
+   * @param word          the word to lookup
+   * @param verbosity     the verbosity of the lookup
+   * @param editDistance  the max edit distance of the lookup
+   * @param lookupOptions options of the call
+   * @return the suggestions, and whether the budget cut the lookup short
+   */
+  public LookupResult lookup(String word, Verbosity verbosity, double editDistance,
+      LookupOptions lookupOptions) throws SpellCheckException {
+    return new LookupResult(lookup(word, verbosity, editDistance), false);
+  }
+
+  /**
+   * Lookup a batch of words on the common {@link ForkJoinPool}, see {@link
+   * #lookupAll(Collection, Verbosity, double, Executor)}.
+   *
+   * @param words        the words to lookup
+   * @param verbosity    the verbosity of every lookup
+   * @param editDistance the max edit distance of every lookup
+   * @return the suggestions of every distinct word, in the order the words were given
+   */
+  public Map<String, List<SuggestionItem>> lookupAll(Collection<String> words,
+      Verbosity verbosity, double editDistance) throws SpellCheckException {
+    return lookupAll(words, verbosity, editDistance, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Lookup a batch of words. Repeated words are looked up once, and the distinct words are split
+   * into chunks looked up in parallel on the executor. The dictionary must not be modified while
+   * the batch runs.
+   *
+   * @param words        the words to lookup
+   * @param verbosity    the verbosity of every lookup
+   * @param editDistance the max edit distance of every lookup
+   * @param executor     executor running the chunks
+   * @return the suggestions of every distinct word, in the order the words were given
+   * @throws SpellCheckException the first exception thrown by a lookup
+   */
+  public Map<String, List<SuggestionItem>> lookupAll(Collection<String> words,
+      Verbosity verbosity, double editDistance, Executor executor) throws SpellCheckException {
+    List<String> distinctWords = new ArrayList<>(new LinkedHashSet<>(words));
+    Map<String, List<SuggestionItem>> results = new LinkedHashMap<>(distinctWords.size() * 2);
+    int chunkCount = Math.min(distinctWords.size(),
+        4 * Runtime.getRuntime().availableProcessors());
+    if (chunkCount <= 1) {
+      for (String word : distinctWords) {
+        results.put(word, lookup(word, verbosity, editDistance));
+      }
+      return results;
+    }
+
+    List<CompletableFuture<List<List<SuggestionItem>>>> chunks = new ArrayList<>(chunkCount);
+    for (int chunk = 0; chunk < chunkCount; chunk++) {
+      List<String> chunkWords = distinctWords.subList(
+          (int) ((long) distinctWords.size() * chunk / chunkCount),
+          (int) ((long) distinctWords.size() * (chunk + 1) / chunkCount));
+      chunks.add(CompletableFuture.supplyAsync(() -> {
+        List<List<SuggestionItem>> suggestions = new ArrayList<>(chunkWords.size());
+        for (String word : chunkWords) {
+          try {
+            suggestions.add(lookup(word, verbosity, editDistance));
+          } catch (SpellCheckException ex) {
+            throw new CompletionException(ex);
+          }
+        }
+        return suggestions;
+      }, executor));
+    }
+
+    int index = 0;
+    for (CompletableFuture<List<List<SuggestionItem>>> chunk : chunks) {
+      List<List<SuggestionItem>> suggestions;
+      try {
+        suggestions = chunk.join();
+      } catch (CompletionException ex) {
+        if (ex.getCause() instanceof SpellCheckException) {
+          throw (SpellCheckException) ex.getCause();
+        }
+        throw new SpellCheckException("Batch lookup failed", ex.getCause(),
+            SpellCheckExceptionCode.LOOKUP_ERROR);
+      }
+      for (List<SuggestionItem> suggestion : suggestions) {
+        results.put(distinctWords.get(index++), suggestion);
+      }
+    }
+    return results;
+  }
+
 
   public List<SuggestionItem> lookupCompound(String word) throws SpellCheckException {
     return lookupCompound(word, spellCheckSettings.getMaxEditDistance());
@@ -50,6 +156,21 @@ public abstract class SpellChecker {
     return lookupCompound(word, editDistance, true);
   }
 
+  /**
+   * Compound lookup of the phrase within the time budget of the options. Spell checkers which
+   * cannot stop early ignore the budget and never truncate.
+   *
+   * @param word                 the phrase to lookup
+   * @param editDistance         the max edit distance of the lookup
+   * @param tokenizeOnWhiteSpace whether to lookup the whitespace separated terms of the phrase
+   * @param lookupOptions        options of the call
+   * @return the suggestions, and whether the budget cut the lookup short
+   */
+  public LookupResult lookupCompound(String word, double editDistance,
+      boolean tokenizeOnWhiteSpace, LookupOptions lookupOptions) throws SpellCheckException {
+    return new LookupResult(lookupCompound(word, editDistance, tokenizeOnWhiteSpace), false);
+  }
+
 
   public Composition wordBreakSegmentation(String phrase) throws SpellCheckException {
     return wordBreakSegmentation(phrase, spellCheckSettings.getPrefixLength(),
@@ -64,4 +185,35 @@ public abstract class SpellChecker {
   public abstract Composition wordBreakSegmentation(String phrase, int maxSegmentationWordLength,
       double maxEditDistance) throws SpellCheckException;
 
+  /**
+   * Word segmentation with the lookups of the parts run on the executor, for long phrases.
+   * Returns the same composition as {@link #wordBreakSegmentation(String, int, double)}, which
+   * this default implementation calls.
+   *
+   * @param phrase                    the phrase to segment
+   * @param maxSegmentationWordLength the maximum word length
+   * @param maxEditDistance           the maximum edit distance
+   * @param executor                  executor running the lookups, or null to run them on the
+   *                                  calling thread
+   * @return the word segmented phrase
+   */
+  public Composition wordBreakSegmentation(String phrase, int maxSegmentationWordLength,
+      double maxEditDistance, Executor executor) throws SpellCheckException {
+    return wordBreakSegmentation(phrase, maxSegmentationWordLength, maxEditDistance);
+  }
+
+  /**
+   * Replace the dictionary with another one, built completely beforehand, for reloads which must
+   * not pause the lookups. Lookups started afterwards use the new dictionary, while a lookup of a
+   * single word already running keeps the one it started with. The old dictionary is garbage
+   * once those lookups have finished and the caller drops it.
+   *
+   * @param newDataHolder the dictionary to look up from now on
+   * @return the dictionary used so far
+   */
+  public synchronized DataHolder swapDataHolder(DataHolder newDataHolder) {
+    DataHolder oldDataHolder = dataHolder;
+    dataHolder = newDataHolder;
+    return oldDataHolder;
+  }
 }
@@ -0,0 +1,256 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import io.github.mightguy.spellcheck.symspell.api.StringDistance;
+
+/**
+ * Damerau Levenshtein distance with a weight of 1 for every action, computed with the bit-vector
+ * algorithm of Myers as extended to transpositions by Hyyrö. The columns of the matrix are kept
+ * as bit vectors of vertical deltas, so each char of the longer word costs a handful of word
+ * operations per 64 chars of the shorter word.
+ *
+ * <p>Returns the same distances as {@link WeightedDamerauLevenshteinDistance} with all weights
+ * at 1 and no {@link io.github.mightguy.spellcheck.symspell.api.CharDistance}, including that
+ * the first two chars of either word are never transposed. Use {@link StringDistanceFactory} to
+ * pick it for those settings.
+ */
+public class BitParallelDamerauLevenshteinDistance implements StringDistance {
+
+  private static final int ASCII_SIZE = 128;
+  /**
+   * Patterns up to this length are scanned for the other chars, as that is cheaper than setting
+   * up the table of them for a few comparisons.
+   */
+  private static final int SCAN_LENGTH = 16;
+
+  private final ThreadLocal<BitVectors> bitVectors = ThreadLocal.withInitial(BitVectors::new);
+
+  @Override
+  public double getDistance(String w1, String w2) {
+    return getDistance(w1, w2, Double.POSITIVE_INFINITY);
+  }
+
+  @Override
+  public double getDistance(String w1, String w2, double maxEditDistance) {
+
+    if (w1.equals(w2)) {
+      return 0;
+    }
+
+    String pattern = w1.length() <= w2.length() ? w1 : w2;
+    String text = pattern == w1 ? w2 : w1;
+    int patternLength = pattern.length();
+    int textLength = text.length();
+    if (textLength - patternLength > maxEditDistance) {
+      return -1;
+    }
+    if (patternLength == 0) {
+      return textLength;
+    }
+
+    int blocks = (patternLength + 63) >>> 6;
+    BitVectors vectors = bitVectors.get();
+    vectors.reset(pattern, blocks);
+    long[] vp = vectors.vp;
+    long[] vn = vectors.vn;
+    long[] previousD0 = vectors.previousD0;
+    long[] previousPeq = vectors.previousPeq;
+    long lastBit = 1L << ((patternLength - 1) & 63);
+    int distance = patternLength;
+
+    try {
+      for (int j = 0; j < textLength; j++) {
+        char c = text.charAt(j);
+        // transpositions are only taken from the third char of both words on
+        boolean transpose = j >= 2;
+        long addCarry = 0;
+        long hpCarry = 1;
+        long hnCarry = 0;
+        long transposeCarry = 0;
+        for (int b = 0; b < blocks; b++) {
+          long peq = vectors.peq(c, b);
+          long v = vp[b];
+
+          long transposable = ~previousD0[b] & peq;
+          long tr = ((transposable << 1) | transposeCarry) & previousPeq[b];
+          transposeCarry = transposable >>> 63;
+          if (!transpose) {
+            tr = 0;
+          } else if (b == 0) {
+            tr &= ~3L;
+          }
+
+          long x = peq & v;
+          long sum = x + v;
+          long carry = Long.compareUnsigned(sum, x) < 0 ? 1 : 0;
+          sum += addCarry;
+          if (addCarry != 0 && sum == 0) {
+            carry = 1;
+          }
+          addCarry = carry;
+
+          long d0 = ((sum ^ v) | peq | vn[b] | tr);
+          long hp = vn[b] | ~(d0 | v);
+          long hn = d0 & v;
+          if (b == blocks - 1) {
+            if ((hp & lastBit) != 0) {
+              distance++;
+            } else if ((hn & lastBit) != 0) {
+              distance--;
+            }
+          }
+          long hpShifted = (hp << 1) | hpCarry;
+          long hnShifted = (hn << 1) | hnCarry;
+          hpCarry = hp >>> 63;
+          hnCarry = hn >>> 63;
+          vn[b] = hpShifted & d0;
+          vp[b] = hnShifted | ~(hpShifted | d0);
+          previousD0[b] = d0;
+          previousPeq[b] = peq;
+        }
+        // the remaining chars can lower the distance by one each at most
+        if (distance - (textLength - j - 1) > maxEditDistance) {
+          return -1;
+        }
+      }
+    } finally {
+      vectors.clear(pattern, blocks);
+    }
+
+    if (distance > maxEditDistance) {
+      return -1;
+    }
+    return distance;
+  }
+
+  /**
+   * Bit vectors of one thread, grown to the longest word seen.
+   */
+  private static final class BitVectors {
+
+    /**
+     * Bit mask of the positions of each ascii char in the pattern, per block.
+     */
+    private long[] asciiPeq = new long[ASCII_SIZE];
+    /**
+     * Open addressing table of the other chars of a pattern longer than {@link #SCAN_LENGTH}, 0
+     * marks an empty slot, and their bit masks per block, so a long word of another script costs
+     * one probe per char and block rather than a scan of the block.
+     */
+    private char[] otherChars = new char[0];
+    private long[] otherPeq = new long[0];
+    private int[] otherSlots = new int[0];
+    private int otherCount;
+    private int otherMask = -1;
+    /**
+     * The pattern if it is scanned for the other chars, null if they are in the table.
+     */
+    private String scannedPattern;
+    private long[] vp = new long[1];
+    private long[] vn = new long[1];
+    private long[] previousD0 = new long[1];
+    private long[] previousPeq = new long[1];
+    private int blocks;
+
+    void reset(String pattern, int blocks) {
+      this.blocks = blocks;
+      scannedPattern = pattern.length() <= SCAN_LENGTH ? pattern : null;
+      if (vp.length < blocks) {
+        asciiPeq = new long[ASCII_SIZE * blocks];
+        vp = new long[blocks];
+        vn = new long[blocks];
+        previousD0 = new long[blocks];
+        previousPeq = new long[blocks];
+      }
+      for (int b = 0; b < blocks; b++) {
+        vp[b] = -1L;
+        vn[b] = 0;
+        previousD0[b] = 0;
+        previousPeq[b] = 0;
+      }
+      for (int i = 0; i < pattern.length(); i++) {
+        char c = pattern.charAt(i);
+        if (c < ASCII_SIZE) {
+          asciiPeq[c * blocks + (i >>> 6)] |= 1L << (i & 63);
+        } else if (scannedPattern == null) {
+          if (otherMask < 0) {
+            otherMask = otherCapacity(pattern.length() - i) - 1;
+          }
+          int slot = slot(c, otherMask);
+          if (otherChars[slot] == 0) {
+            otherChars[slot] = c;
+            otherSlots[otherCount++] = slot;
+          }
+          otherPeq[slot * blocks + (i >>> 6)] |= 1L << (i & 63);
+        }
+      }
+    }
+
+    /**
+     * Grow the table of the other chars to be at most half full with the remaining chars of the
+     * pattern.
+     *
+     * @return the number of slots used
+     */
+    private int otherCapacity(int remaining) {
+      int capacity = Integer.highestOneBit(remaining) << 2;
+      if (otherChars.length < capacity) {
+        otherChars = new char[capacity];
+        otherSlots = new int[capacity];
+      }
+      if (otherPeq.length < capacity * blocks) {
+        otherPeq = new long[capacity * blocks];
+      }
+      return capacity;
+    }
+
+    long peq(char c, int block) {
+      if (c < ASCII_SIZE) {
+        return asciiPeq[c * blocks + block];
+      }
+      if (scannedPattern != null) {
+        long peq = 0;
+        for (int i = 0; i < scannedPattern.length(); i++) {
+          if (scannedPattern.charAt(i) == c) {
+            peq |= 1L << i;
+          }
+        }
+        return peq;
+      }
+      if (otherMask < 0) {
+        return 0;
+      }
+      int slot = slot(c, otherMask);
+      return otherChars[slot] == c ? otherPeq[slot * blocks + block] : 0;
+    }
+
+    /**
+     * The slot holding the char, or the empty slot it would be put in.
+     */
+    private int slot(char c, int mask) {
+      int slot = (c * 0x9E3779B9 >>> 16) & mask;
+      while (otherChars[slot] != 0 && otherChars[slot] != c) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    void clear(String pattern, int blocks) {
+      for (int i = 0; i < pattern.length(); i++) {
+        char c = pattern.charAt(i);
+        if (c < ASCII_SIZE) {
+          asciiPeq[c * blocks + (i >>> 6)] = 0;
+        }
+      }
+      for (int i = 0; i < otherCount; i++) {
+        int slot = otherSlots[i];
+        otherChars[slot] = 0;
+        for (int b = 0; b < blocks; b++) {
+          otherPeq[slot * blocks + b] = 0;
+        }
+      }
+      otherCount = 0;
+      otherMask = -1;
+      scannedPattern = null;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+
+/**
+ * Hash functions which can be selected for the deletes index through {@link SpellCheckSettings}.
+ */
+public enum HashAlgorithm {
+  /**
+   * 32 bit Murmur3, compact but collisions grow with the number of deletes.
+   */
+  MURMUR3_32 {
+    @Override
+    public HashFunction newHashFunction() {
+      return new Murmur3HashFunction();
+    }
+  },
+  /**
+   * 64 bit Murmur3, practically collision free deletes index.
+   */
+  MURMUR3_64 {
+    @Override
+    public HashFunction newHashFunction() {
+      return new Murmur3x64HashFunction();
+    }
+  };
+
+  public abstract HashFunction newHashFunction();
+}
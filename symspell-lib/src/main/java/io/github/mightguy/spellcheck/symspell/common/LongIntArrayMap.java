@@ -0,0 +1,272 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from a primitive long key to a list of primitive int values. Keys are
+ * stored in a flat long[] and probed linearly, so neither the keys nor the values are ever boxed.
+ *
+ * <p>While the map is built every key owns a growable int[] whose capacity doubles, so appending
+ * is amortized constant time. {@link #freeze()} compacts all the lists into one exact sized
+ * postings array addressed by offset, which is what lookups should run against. Adding to a
+ * frozen map expands it back into growable lists first.
+ *
+ * <p>The values of a slot are read with {@link #arrayAt(int)}, {@link #offsetAt(int)} and {@link
+ * #lengthAt(int)}, which are valid in both states.
+ */
+public final class LongIntArrayMap {
+
+  private static final int MIN_CAPACITY = 16;
+  private static final long PHI = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  /**
+   * Number of values of the key in each slot, 0 marks an empty slot.
+   */
+  private int[] lengths;
+  /**
+   * Growable values of each slot, null once frozen.
+   */
+  private int[][] values;
+  /**
+   * Start of the values of each slot in {@link #postings}, null until frozen.
+   */
+  private int[] offsets;
+  private int[] postings;
+  private int size;
+  private int shift;
+  private int resizeAt;
+
+  public LongIntArrayMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Constructor for LongIntArrayMap
+   *
+   * @param expectedSize number of keys expected to be stored without rehashing
+   */
+  public LongIntArrayMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * Find the slot of the key.
+   *
+   * @param key the key
+   * @return the slot, or -1 if the key is absent
+   */
+  public int find(long key) {
+    int mask = keys.length - 1;
+    for (int slot = slot(key); lengths[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return a copy of the values mapped to the key.
+   *
+   * @param key the key
+   * @return the values, or null if the key is absent
+   */
+  public int[] get(long key) {
+    int slot = find(key);
+    if (slot < 0) {
+      return null;
+    }
+    int offset = offsetAt(slot);
+    return Arrays.copyOfRange(arrayAt(slot), offset, offset + lengths[slot]);
+  }
+
+  /**
+   * Append a value to the values mapped to the key.
+   *
+   * @param key   the key
+   * @param value the value to append
+   */
+  public void add(long key, int value) {
+    thaw();
+    int mask = keys.length - 1;
+    int slot = slot(key);
+    while (lengths[slot] != 0) {
+      if (keys[slot] == key) {
+        int[] current = values[slot];
+        if (lengths[slot] == current.length) {
+          current = Arrays.copyOf(current, current.length << 1);
+          values[slot] = current;
+        }
+        current[lengths[slot]++] = value;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = new int[]{value};
+    lengths[slot] = 1;
+    if (++size >= resizeAt) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  /**
+   * Map the key to the values, replacing the values previously mapped to it.
+   *
+   * @param key    the key
+   * @param values the values, must not be empty, the array is stored as is
+   */
+  public void put(long key, int[] values) {
+    thaw();
+    int mask = keys.length - 1;
+    int slot = slot(key);
+    while (lengths[slot] != 0) {
+      if (keys[slot] == key) {
+        this.values[slot] = values;
+        lengths[slot] = values.length;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    this.values[slot] = values;
+    lengths[slot] = values.length;
+    if (++size >= resizeAt) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  /**
+   * Compact the values of all keys into a single exact sized array. Does nothing if the map is
+   * already frozen.
+   */
+  public void freeze() {
+    if (values == null) {
+      return;
+    }
+    long total = 0;
+    for (int length : lengths) {
+      total += length;
+    }
+    if (total > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Too many values to freeze: " + total);
+    }
+    offsets = new int[keys.length];
+    postings = new int[(int) total];
+    int cursor = 0;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (lengths[slot] != 0) {
+        offsets[slot] = cursor;
+        System.arraycopy(values[slot], 0, postings, cursor, lengths[slot]);
+        cursor += lengths[slot];
+      }
+    }
+    values = null;
+  }
+
+  public boolean isFrozen() {
+    return values == null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Number of slots in the table, use with {@link #keyAt(int)} and {@link #lengthAt(int)} to
+   * iterate over the entries.
+   *
+   * @return slot count
+   */
+  public int capacity() {
+    return keys.length;
+  }
+
+  public long keyAt(int slot) {
+    return keys[slot];
+  }
+
+  /**
+   * Return the number of values stored in the slot.
+   *
+   * @param slot slot index below {@link #capacity()}
+   * @return the number of values, or 0 if the slot is empty
+   */
+  public int lengthAt(int slot) {
+    return lengths[slot];
+  }
+
+  /**
+   * Return the array holding the values of the slot, starting at {@link #offsetAt(int)}. The
+   * array must not be modified.
+   *
+   * @param slot an occupied slot
+   * @return the backing array
+   */
+  public int[] arrayAt(int slot) {
+    return values == null ? postings : values[slot];
+  }
+
+  public int offsetAt(int slot) {
+    return values == null ? offsets[slot] : 0;
+  }
+
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    size = 0;
+  }
+
+  private void thaw() {
+    if (values != null) {
+      return;
+    }
+    values = new int[keys.length][];
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (lengths[slot] != 0) {
+        values[slot] = Arrays.copyOfRange(postings, offsets[slot],
+            offsets[slot] + lengths[slot]);
+      }
+    }
+    offsets = null;
+    postings = null;
+  }
+
+  private int slot(long key) {
+    return (int) ((key * PHI) >>> shift);
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldLengths = lengths;
+    int[][] oldValues = values;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldLengths[i] != 0) {
+        int slot = slot(oldKeys[i]);
+        while (lengths[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        lengths[slot] = oldLengths[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    lengths = new int[capacity];
+    values = new int[capacity][];
+    offsets = null;
+    postings = null;
+    shift = Long.numberOfLeadingZeros(capacity - 1L);
+    resizeAt = (capacity >>> 1) + (capacity >>> 2);
+  }
+
+  private static int capacityFor(int expectedSize) {
+    long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.75d) + 1);
+    return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+  }
+}
@@ -0,0 +1,44 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import io.github.mightguy.spellcheck.symspell.api.SpellChecker;
+import java.util.concurrent.TimeUnit;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Per call options of the {@link SpellChecker} lookups.
+ */
+@ToString
+@Builder
+@Getter
+public class LookupOptions {
+
+  /**
+   * Lookup with the default options, without a time budget.
+   */
+  public static final LookupOptions DEFAULT = LookupOptions.builder().build();
+
+  /**
+   * Time budget of the call in nanoseconds, 0 or less for no budget. When it expires the lookup
+   * stops expanding candidates and returns the best suggestions found so far, see {@link
+   * LookupResult#isTruncated()}.
+   */
+  @Builder.Default
+  private long budgetNanos = 0;
+
+  /**
+   * Options with a time budget for the call.
+   *
+   * @param budget budget of the call, 0 or less for no budget
+   * @param unit   unit of the budget
+   * @return the lookup options
+   */
+  public static LookupOptions withBudget(long budget, TimeUnit unit) {
+    return LookupOptions.builder().budgetNanos(unit.toNanos(budget)).build();
+  }
+
+  public boolean hasBudget() {
+    return budgetNanos > 0;
+  }
+}
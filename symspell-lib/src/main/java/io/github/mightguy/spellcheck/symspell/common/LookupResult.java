@@ -0,0 +1,23 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Suggestions of a lookup run with {@link LookupOptions}.
+ */
+@ToString
+@Getter
+@AllArgsConstructor
+public class LookupResult {
+
+  private final List<SuggestionItem> suggestions;
+
+  /**
+   * true if the time budget expired before the lookup completed, the suggestions are then the
+   * best ones found until then.
+   */
+  private final boolean truncated;
+}
@@ -15,4 +15,33 @@ public class Murmur3HashFunction implements HashFunction {
   public Long hash(String data) {
     return hash(data.getBytes());
   }
+
+  /**
+   * Murmur3 x86 32 bit hash of the UTF-16 chars of the slice, two chars per block, without
+   * encoding the chars to bytes first. Unlike {@link #hash(String)}, which hashes the bytes of the
+   * default charset, the value does not depend on the platform.
+   */
+  @Override
+  public long hash(CharSequence data, int from, int to) {
+    int h1 = (int) SEED;
+    int i = from;
+    for (; i + 1 < to; i += 2) {
+      h1 ^= mixK1(data.charAt(i) | (data.charAt(i + 1) << 16));
+      h1 = Integer.rotateLeft(h1, 13) * 5 + 0xe6546b64;
+    }
+    if (i < to) {
+      h1 ^= mixK1(data.charAt(i));
+    }
+    h1 ^= 2 * (to - from);
+    h1 ^= h1 >>> 16;
+    h1 *= 0x85ebca6b;
+    h1 ^= h1 >>> 13;
+    h1 *= 0xc2b2ae35;
+    h1 ^= h1 >>> 16;
+    return h1 & 0xFFFFFFFFL;
+  }
+
+  private static int mixK1(int k1) {
+    return Integer.rotateLeft(k1 * 0xcc9e2d51, 15) * 0x1b873593;
+  }
 }
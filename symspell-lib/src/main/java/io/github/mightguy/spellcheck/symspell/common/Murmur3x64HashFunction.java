@@ -0,0 +1,86 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import com.sangupta.murmur.Murmur3;
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+
+/**
+ * 64 bit variant of {@link Murmur3HashFunction}, the first half of the Murmur3 x64 128 bit hash.
+ * The wider hash makes collisions in the deletes index negligible even for large dictionaries at
+ * high edit distances, so fewer false suggestions reach the edit distance check.
+ */
+public class Murmur3x64HashFunction implements HashFunction {
+
+  private static final long SEED = 0x7f3a21eaL;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  public long hash(byte[] bytes) {
+    return Murmur3.hash_x64_128(bytes, bytes.length, SEED)[0];
+  }
+
+  public Long hash(String data) {
+    return hash(data, 0, data.length());
+  }
+
+  /**
+   * Murmur3 x64 128 bit hash of the UTF-16 chars of the slice, eight chars per block, returning
+   * the first 64 bits.
+   */
+  @Override
+  public long hash(CharSequence data, int from, int to) {
+    long h1 = SEED;
+    long h2 = SEED;
+    int i = from;
+    for (; i + 7 < to; i += 8) {
+      h1 ^= mixK1(pack(data, i, 4));
+      h1 = Long.rotateLeft(h1, 27) + h2;
+      h1 = h1 * 5 + 0x52dce729;
+      h2 ^= mixK2(pack(data, i + 4, 4));
+      h2 = Long.rotateLeft(h2, 31) + h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+    int remaining = to - i;
+    if (remaining > 4) {
+      h2 ^= mixK2(pack(data, i + 4, remaining - 4));
+    }
+    if (remaining > 0) {
+      h1 ^= mixK1(pack(data, i, Math.min(4, remaining)));
+    }
+    long length = 2L * (to - from);
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    return h1 + h2;
+  }
+
+  /**
+   * Little endian 64 bit block of count chars starting at from.
+   */
+  private static long pack(CharSequence data, int from, int count) {
+    long block = 0;
+    for (int j = 0; j < count; j++) {
+      block |= (long) data.charAt(from + j) << (16 * j);
+    }
+    return block;
+  }
+
+  private static long mixK1(long k1) {
+    return Long.rotateLeft(k1 * C1, 31) * C2;
+  }
+
+  private static long mixK2(long k2) {
+    return Long.rotateLeft(k2 * C2, 33) * C1;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
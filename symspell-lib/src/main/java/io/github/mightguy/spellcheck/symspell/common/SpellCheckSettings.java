@@ -23,10 +23,11 @@ public class SpellCheckSettings {
   private Verbosity verbosity = Verbosity.ALL;
 
   /**
-   * limit suggestion list to topK entries
+   * limit the suggestion list of {@link Verbosity#ALL} and {@link Verbosity#CLOSEST} lookups to
+   * the topK best entries, sorted best first. (default unlimited, in the order found)
    */
   @Builder.Default
-  private int topK = 10; // limits result to n entries
+  private int topK = Integer.MAX_VALUE; // limits result to n entries
 
 
   /**
@@ -80,15 +81,16 @@ public class SpellCheckSettings {
   private long countThreshold = 1;
 
   /**
-   * Max keywordLength;
+   * Max keywordLength; Raised by the data holders while ingesting the terms, and read by
+   * concurrent lookups.
    */
   @Setter
   @Builder.Default
-  private int maxLength = Integer.MAX_VALUE;
+  private volatile int maxLength = Integer.MAX_VALUE;
 
   @Setter
   @Builder.Default
-  private double bigramCountMin = Double.MAX_VALUE;
+  private volatile double bigramCountMin = Double.MAX_VALUE;
 
   /**
    * Ignore the word in resultset, if suggestions are empty
@@ -108,4 +110,33 @@ public class SpellCheckSettings {
   @Builder.Default
   private String keySplitRegex = "\\s+";
 
+  /**
+   * Hash function of the deletes index used by data holders created without an explicit {@link
+   * io.github.mightguy.spellcheck.symspell.api.HashFunction}.
+   */
+  @Builder.Default
+  private HashAlgorithm hashAlgorithm = HashAlgorithm.MURMUR3_32;
+
+  /**
+   * Raise the max keyword length to the length of a term, if it is longer. Data holders
+   * ingesting terms concurrently use it instead of comparing and setting the length themselves.
+   *
+   * @param length length of the term
+   */
+  public synchronized void raiseMaxLength(int length) {
+    if (length > maxLength) {
+      maxLength = length;
+    }
+  }
+
+  /**
+   * Lower the minimum bigram count to the count of a bigram, if it is lower.
+   *
+   * @param count count of the bigram
+   */
+  public synchronized void lowerBigramCountMin(double count) {
+    if (count < bigramCountMin) {
+      bigramCountMin = count;
+    }
+  }
 }
@@ -0,0 +1,50 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import io.github.mightguy.spellcheck.symspell.api.CharDistance;
+import io.github.mightguy.spellcheck.symspell.api.StringDistance;
+
+/**
+ * Creates the {@link StringDistance} for a set of Damerau Levenshtein weights. When every weight
+ * is 1 and no {@link CharDistance} is given, the bit-parallel {@link
+ * BitParallelDamerauLevenshteinDistance} is used, otherwise the {@link
+ * WeightedDamerauLevenshteinDistance}. Both return the same distances for unit weights.
+ */
+public final class StringDistanceFactory {
+
+  private StringDistanceFactory() {
+  }
+
+  /**
+   * Create the string distance for the weights of the settings.
+   *
+   * @param spellCheckSettings settings holding the weights
+   * @param charDistance       distance between chars for replacements, may be null
+   * @return the string distance
+   */
+  public static StringDistance create(SpellCheckSettings spellCheckSettings,
+      CharDistance charDistance) {
+    return create(spellCheckSettings.getDeletionWeight(), spellCheckSettings.getInsertionWeight(),
+        spellCheckSettings.getReplaceWeight(), spellCheckSettings.getTranspositionWeight(),
+        charDistance);
+  }
+
+  /**
+   * Create the string distance for the weights.
+   *
+   * @param deletionWeight      weight of a deletion
+   * @param insertionWeight     weight of an insertion
+   * @param replaceWeight       weight of a replacement
+   * @param transpositionWeight weight of a transposition
+   * @param charDistance        distance between chars for replacements, may be null
+   * @return the string distance
+   */
+  public static StringDistance create(double deletionWeight, double insertionWeight,
+      double replaceWeight, double transpositionWeight, CharDistance charDistance) {
+    if (charDistance == null && deletionWeight == 1 && insertionWeight == 1
+        && replaceWeight == 1 && transpositionWeight == 1) {
+      return new BitParallelDamerauLevenshteinDistance();
+    }
+    return new WeightedDamerauLevenshteinDistance(deletionWeight, insertionWeight, replaceWeight,
+        transpositionWeight, charDistance);
+  }
+}
@@ -61,4 +61,13 @@ public class SuggestionItem implements Comparator<SuggestionItem>, Comparable<Su
     return suggestItem.compareTo(suggestItem2);
   }
 
+  /**
+   * Copy of the suggestion including its score, for callers handing out suggestions they keep.
+   */
+  public SuggestionItem copy() {
+    SuggestionItem copy = new SuggestionItem(term, distance, count);
+    copy.setScore(score);
+    return copy;
+  }
+
 }
@@ -0,0 +1,117 @@
+package io.github.mightguy.spellcheck.symspell.common;
+
+import java.util.Arrays;
+
+/**
+ * Pool of unique terms, each of which is assigned a dense int id in insertion order. The ids can
+ * be stored in primitive structures instead of references, and resolved back through {@link
+ * #get(int)}.
+ */
+public final class TermPool {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private String[] terms;
+  /**
+   * Open addressing table holding id + 1 of the term in each slot, 0 marks an empty slot.
+   */
+  private int[] table;
+  private int size;
+
+  public TermPool() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Constructor for TermPool
+   *
+   * @param expectedSize number of terms expected to be pooled without rehashing
+   */
+  public TermPool(int expectedSize) {
+    terms = new String[Math.max(MIN_CAPACITY, expectedSize)];
+    table = new int[tableCapacityFor(terms.length)];
+  }
+
+  /**
+   * Add the term to the pool if absent.
+   *
+   * @param term the term
+   * @return id of the term
+   */
+  public int add(String term) {
+    int mask = table.length - 1;
+    int slot = slot(term, mask);
+    while (table[slot] != 0) {
+      int id = table[slot] - 1;
+      if (terms[id].equals(term)) {
+        return id;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (size == terms.length) {
+      terms = Arrays.copyOf(terms, size << 1);
+    }
+    int id = size++;
+    terms[id] = term;
+    table[slot] = id + 1;
+    if (size > (table.length >>> 1)) {
+      rehash(table.length << 1);
+    }
+    return id;
+  }
+
+  /**
+   * Return the id of the term.
+   *
+   * @param term the term
+   * @return id of the term, or -1 if the term is not pooled
+   */
+  public int indexOf(String term) {
+    int mask = table.length - 1;
+    for (int slot = slot(term, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+      int id = table[slot] - 1;
+      if (terms[id].equals(term)) {
+        return id;
+      }
+    }
+    return -1;
+  }
+
+  public String get(int id) {
+    return terms[id];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Remove all the terms from the pool, ids are reassigned from 0 afterwards.
+   */
+  public void clear() {
+    terms = new String[MIN_CAPACITY];
+    table = new int[tableCapacityFor(MIN_CAPACITY)];
+    size = 0;
+  }
+
+  private void rehash(int capacity) {
+    table = new int[capacity];
+    int mask = capacity - 1;
+    for (int id = 0; id < size; id++) {
+      int slot = slot(terms[id], mask);
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = id + 1;
+    }
+  }
+
+  private static int slot(String term, int mask) {
+    int hash = term.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static int tableCapacityFor(int expectedSize) {
+    return Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize) - 1) << 2;
+  }
+}
@@ -15,6 +15,11 @@ import io.github.mightguy.spellcheck.symspell.api.StringDistance;
  */
 public class WeightedDamerauLevenshteinDistance implements StringDistance {
 
+  /**
+   * Slack on the band, so rounding in the summed weights never drops a cell within the max.
+   */
+  private static final double BAND_TOLERANCE = 1e-9;
+
   // Damerau function variables
   private double deletionWeight = 0.8f;
 
@@ -88,16 +93,119 @@ public class WeightedDamerauLevenshteinDistance implements StringDistance {
     return d[target.length()][source.length()];
   }
 
+  /**
+   * Same distance as {@link #getDistance(String, String)}, but only evaluates the diagonal band of
+   * the matrix a path within maxEditDistance can pass through, keeping three rows of it. Every
+   * path to cell (i, j) needs |i - j| insertions or deletions, and as many again to get from there
+   * to the end, so cells further off the diagonal can be skipped. The computation stops as soon as
+   * two consecutive rows exceed maxEditDistance, as a transposition can skip one row but not two.
+   *
+   * @return the distance, or -1 if it exceeds maxEditDistance
+   */
   @Override
-  public double getDistance(String w1, String w2, double maxEditDistance) {
+  public double getDistance(String source, String target, double maxEditDistance) {
+
+    if (source.equals(target)) {
+      return 0;
+    }
+
+    if (source.length() == 0 || target.length() == 0) {
+      double distance = Math.max(source.length(), target.length());
+      return distance > maxEditDistance ? -1 : distance;
+    }
+
+    int sourceLength = source.length();
+    int targetLength = target.length();
+    int lengthDiff = targetLength - sourceLength;
+    double bound = maxEditDistance + BAND_TOLERANCE;
+    if (getIndelCost(0, lengthDiff) > bound) {
+      return -1;
+    }
+
+    // cell (i, j) lies on diagonal i - j, keep the diagonals in [minDiagonal, maxDiagonal]
+    int maxDiagonal = Math.max(0, lengthDiff);
+    while (maxDiagonal < targetLength && getIndelCost(maxDiagonal + 1, lengthDiff) <= bound) {
+      maxDiagonal++;
+    }
+    int minDiagonal = Math.min(0, lengthDiff);
+    while (minDiagonal > -sourceLength && getIndelCost(minDiagonal - 1, lengthDiff) <= bound) {
+      minDiagonal--;
+    }
+
+    boolean useCharDistance = (charDistance != null && sourceLength == targetLength);
+    double[] previous2 = new double[sourceLength + 1];
+    double[] previous = new double[sourceLength + 1];
+    double[] current = new double[sourceLength + 1];
+
+    int high = Math.min(sourceLength, -minDiagonal);
+    for (int j = 0; j <= high; j++) {
+      previous[j] = j * deletionWeight;
+    }
+    if (high < sourceLength) {
+      previous[high + 1] = Double.POSITIVE_INFINITY;
+    }
+    double previousRowMin = 0;
 
-    double distance = getDistance(w1, w2);
+    for (int i = 1; i <= targetLength; i++) {
+      int low = Math.max(0, i - maxDiagonal);
+      high = Math.min(sourceLength, i - minDiagonal);
+      char target_i = target.charAt(i - 1);
+      double rowMin = Double.POSITIVE_INFINITY;
+      int j = low;
+      if (low == 0) {
+        current[0] = i * insertionWeight;
+        rowMin = current[0];
+        j = 1;
+      } else {
+        current[low - 1] = Double.POSITIVE_INFINITY;
+      }
+      for (; j <= high; j++) {
+        char source_j = source.charAt(j - 1);
+
+        double cost = getReplaceCost(target_i, source_j, useCharDistance);
+
+        double min = min(previous[j] + insertionWeight, //Insertion
+            current[j - 1] + deletionWeight, //Deltion
+            previous[j - 1] + cost); //Replacement
+        if (isTransposition(i, j, source, target)) {
+          min = Math.min(min, previous2[j - 2] + transpositionWeight); // transpose
+        }
+        current[j] = min;
+        rowMin = Math.min(rowMin, min);
+      }
+      if (high < sourceLength) {
+        current[high + 1] = Double.POSITIVE_INFINITY;
+      }
+      if (rowMin > maxEditDistance && previousRowMin > maxEditDistance) {
+        return -1;
+      }
+      previousRowMin = rowMin;
+
+      double[] recycled = previous2;
+      previous2 = previous;
+      previous = current;
+      current = recycled;
+    }
+
+    double distance = previous[sourceLength];
     if (distance > maxEditDistance) {
       return -1;
     }
     return distance;
   }
 
+  /**
+   * Least insertion and deletion cost of any path from the start of the matrix to the end through
+   * diagonal i - j, that is, to diagonal and from there to lengthDiff.
+   */
+  private double getIndelCost(int diagonal, int lengthDiff) {
+    return getIndelCost(diagonal) + getIndelCost(lengthDiff - diagonal);
+  }
+
+  private double getIndelCost(int diagonal) {
+    return diagonal > 0 ? diagonal * insertionWeight : -diagonal * deletionWeight;
+  }
+
   private double min(double a, double b, double c) {
     return Math.min(a, Math.min(b, c));
   }
@@ -0,0 +1,191 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.api.SpellChecker;
+import io.github.mightguy.spellcheck.symspell.common.Composition;
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+import io.github.mightguy.spellcheck.symspell.common.LookupResult;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Decorator caching the results of {@link SpellChecker#lookup(String, Verbosity, double)} of
+ * another spell checker, for query traffic where the same misspellings come back over and over.
+ *
+ * <p>Results are keyed by the normalized word, the verbosity and the edit distance, and kept in a
+ * bounded segmented LRU cache. Every entry records the dictionary and its {@link
+ * DataHolder#getModificationCount()} seen before the lookup, and is only served while both are
+ * unchanged, so words added to the dictionary or a swapped dictionary are picked up by the next
+ * lookup. Compound lookups and word segmentation are delegated uncached.
+ */
+public class CachingSpellChecker extends SpellChecker {
+
+  private final SpellChecker spellChecker;
+  private final SegmentedLruCache<CacheKey, CacheEntry> cache;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Constructor for CachingSpellChecker
+   *
+   * @param spellChecker the spell checker to cache the lookups of
+   * @param maxEntries   max number of cached lookups
+   */
+  public CachingSpellChecker(SpellChecker spellChecker, int maxEntries) {
+    super(spellChecker.getDataHolder(), spellChecker.getStringDistance(),
+        spellChecker.getSpellCheckSettings());
+    this.spellChecker = spellChecker;
+    this.cache = new SegmentedLruCache<>(maxEntries);
+  }
+
+  /**
+   * Return the cached suggestions of the word, or look them up with the decorated spell checker.
+   * Every call returns its own copy of the suggestions, which the caller may modify.
+   */
+  @Override
+  public List<SuggestionItem> lookup(String word, Verbosity verbosity, double editDistance)
+      throws SpellCheckException {
+    return lookup(word, verbosity, editDistance, LookupOptions.DEFAULT).getSuggestions();
+  }
+
+  /**
+   * Return the cached suggestions of the word, or look them up with the decorated spell checker
+   * within the time budget of the options. Truncated lookups are not cached.
+   */
+  @Override
+  public LookupResult lookup(String word, Verbosity verbosity, double editDistance,
+      LookupOptions lookupOptions) throws SpellCheckException {
+    DataHolder currentDataHolder = dataHolder;
+    long currentModificationCount = currentDataHolder.getModificationCount();
+    if (editDistance <= 0) {
+      editDistance = spellCheckSettings.getMaxEditDistance();
+    }
+    CacheKey key = new CacheKey(
+        spellCheckSettings.isLowerCaseTerms() ? word.toLowerCase() : word, verbosity,
+        editDistance);
+
+    CacheEntry cached = cache.get(key);
+    if (cached != null) {
+      if (cached.dataHolder == currentDataHolder
+          && cached.modificationCount == currentModificationCount) {
+        hits.increment();
+        return new LookupResult(copy(cached.suggestionItems), false);
+      }
+      cache.remove(key, cached);
+    }
+    misses.increment();
+    LookupResult lookupResult = spellChecker.lookup(word, verbosity, editDistance,
+        lookupOptions);
+    if (!lookupResult.isTruncated()) {
+      List<SuggestionItem> suggestionItems = lookupResult.getSuggestions();
+      SuggestionItem[] copies = new SuggestionItem[suggestionItems.size()];
+      for (int i = 0; i < copies.length; i++) {
+        copies[i] = suggestionItems.get(i).copy();
+      }
+      // tagged with the state seen before the lookup, a change meanwhile makes the entry stale
+      cache.put(key, new CacheEntry(currentDataHolder, currentModificationCount, copies));
+    }
+    return lookupResult;
+  }
+
+  @Override
+  public List<SuggestionItem> lookupCompound(String word, double editDistance,
+      boolean tokenizeOnWhiteSpace) throws SpellCheckException {
+    return spellChecker.lookupCompound(word, editDistance, tokenizeOnWhiteSpace);
+  }
+
+  @Override
+  public LookupResult lookupCompound(String word, double editDistance,
+      boolean tokenizeOnWhiteSpace, LookupOptions lookupOptions) throws SpellCheckException {
+    return spellChecker.lookupCompound(word, editDistance, tokenizeOnWhiteSpace, lookupOptions);
+  }
+
+  @Override
+  public Composition wordBreakSegmentation(String phrase, int maxSegmentationWordLength,
+      double maxEditDistance) throws SpellCheckException {
+    return spellChecker.wordBreakSegmentation(phrase, maxSegmentationWordLength,
+        maxEditDistance);
+  }
+
+  @Override
+  public Composition wordBreakSegmentation(String phrase, int maxSegmentationWordLength,
+      double maxEditDistance, Executor executor) throws SpellCheckException {
+    return spellChecker.wordBreakSegmentation(phrase, maxSegmentationWordLength,
+        maxEditDistance, executor);
+  }
+
+  /**
+   * Swap the dictionary of the decorated spell checker too, and drop the lookups cached from the
+   * old dictionary. Lookups running meanwhile cache their results for the old dictionary, which
+   * are never served.
+   */
+  @Override
+  public synchronized DataHolder swapDataHolder(DataHolder newDataHolder) {
+    spellChecker.swapDataHolder(newDataHolder);
+    DataHolder oldDataHolder = super.swapDataHolder(newDataHolder);
+    cache.clear();
+    return oldDataHolder;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public int getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * Drop all cached lookups and reset the hit and miss counts.
+   */
+  public void invalidate() {
+    cache.clear();
+    hits.reset();
+    misses.reset();
+  }
+
+  private static List<SuggestionItem> copy(SuggestionItem[] suggestionItems) {
+    List<SuggestionItem> copies = new ArrayList<>(suggestionItems.length);
+    for (SuggestionItem suggestionItem : suggestionItems) {
+      copies.add(suggestionItem.copy());
+    }
+    return copies;
+  }
+
+  private static final class CacheEntry {
+
+    private final DataHolder dataHolder;
+    private final long modificationCount;
+    private final SuggestionItem[] suggestionItems;
+
+    CacheEntry(DataHolder dataHolder, long modificationCount, SuggestionItem[] suggestionItems) {
+      this.dataHolder = dataHolder;
+      this.modificationCount = modificationCount;
+      this.suggestionItems = suggestionItems;
+    }
+  }
+
+  @EqualsAndHashCode
+  private static final class CacheKey {
+
+    private final String word;
+    private final Verbosity verbosity;
+    private final double editDistance;
+
+    CacheKey(String word, Verbosity verbosity, double editDistance) {
+      this.word = word;
+      this.verbosity = verbosity;
+      this.editDistance = editDistance;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import java.util.Arrays;
+
+/**
+ * Trie over the chars of the dictionary terms, answering {@link
+ * io.github.mightguy.spellcheck.symspell.api.DataHolder#isTermPrefix(String)} for the {@link
+ * InMemoryDataHolder}. The nodes are kept in parallel arrays, every node links to its first child
+ * and its next sibling.
+ */
+final class CharTrie {
+
+  private static final int ROOT = 0;
+
+  private char[] labels = new char[64];
+  private int[] firstChild = new int[64];
+  private int[] nextSibling = new int[64];
+  private int size = 1;
+
+  void add(CharSequence term) {
+    int node = ROOT;
+    for (int i = 0; i < term.length(); i++) {
+      int child = find(node, term.charAt(i));
+      node = child != 0 ? child : addChild(node, term.charAt(i));
+    }
+  }
+
+  /**
+   * Whether some added term starts with the chars of the prefix.
+   */
+  boolean hasPrefix(CharSequence prefix) {
+    int node = ROOT;
+    for (int i = 0; i < prefix.length(); i++) {
+      node = find(node, prefix.charAt(i));
+      if (node == 0) {
+        return false;
+      }
+    }
+    return size > 1;
+  }
+
+  void clear() {
+    Arrays.fill(firstChild, 0, size, 0);
+    Arrays.fill(nextSibling, 0, size, 0);
+    size = 1;
+  }
+
+  private int find(int node, char c) {
+    for (int child = firstChild[node]; child != 0; child = nextSibling[child]) {
+      if (labels[child] == c) {
+        return child;
+      }
+    }
+    return 0;
+  }
+
+  private int addChild(int node, char c) {
+    if (size == labels.length) {
+      labels = Arrays.copyOf(labels, size << 1);
+      firstChild = Arrays.copyOf(firstChild, size << 1);
+      nextSibling = Arrays.copyOf(nextSibling, size << 1);
+    }
+    int child = size++;
+    labels[child] = c;
+    nextSibling[child] = firstChild[node];
+    firstChild[node] = child;
+    return child;
+  }
+}
@@ -0,0 +1,186 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compound lookup of a text read from a {@link Reader} or a sequence of chunks, which hands out
+ * the corrected parts one by one while reading. A term is only ever combined with the term
+ * before it, so no more than the last two parts are held, and the memory used does not grow with
+ * the length of the text. Created by {@link SymSpellCheck#lookupCompoundStream(Reader,
+ * double)}. Not thread safe.
+ *
+ * <p>The parts are the same as those of {@link SymSpellCheck#lookupCompound(String, double)} on
+ * the whole text, except that there is no early exit for a whole text in the exclusion list, and
+ * runs of more than {@link #MAX_TERM_LENGTH} non whitespace chars are cut into several terms.
+ * The whole text is checked against the dictionary of the spell checker at the time the stream
+ * is created, a dictionary swapped in later is only read by streams created after the swap.
+ */
+public final class CompoundLookupStream {
+
+  /**
+   * Longest term read, longer runs of non whitespace chars are cut into terms of this length.
+   */
+  public static final int MAX_TERM_LENGTH = 1024;
+
+  /**
+   * Suggestions of the terms, splits and combinations looked up last, reused like those of a
+   * single compound lookup.
+   */
+  private static final int CACHED_TERMS = 4096;
+
+  private final SymSpellCheck spellCheck;
+  private final DataHolder dataHolder;
+  private final Terms terms;
+  private final double maxEditDistance;
+  private final boolean lowerCaseTerms;
+  private final List<SuggestionItem> suggestionParts = new ArrayList<>(2);
+  private final Map<String, SuggestionItem[]> termSuggestions =
+      new LinkedHashMap<String, SuggestionItem[]>(CACHED_TERMS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SuggestionItem[]> eldest) {
+          return size() > CACHED_TERMS;
+        }
+      };
+  private String previousTerm;
+  private boolean isLastCombi;
+
+  CompoundLookupStream(SymSpellCheck spellCheck, DataHolder dataHolder, Terms terms,
+      double maxEditDistance, boolean lowerCaseTerms) {
+    this.spellCheck = spellCheck;
+    this.dataHolder = dataHolder;
+    this.terms = terms;
+    this.maxEditDistance = maxEditDistance;
+    this.lowerCaseTerms = lowerCaseTerms;
+  }
+
+  /**
+   * Read on until the next part is final, that is until the term after it is looked up.
+   *
+   * @return the next part of the correction, null once the text is fully read
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#LOOKUP_ERROR} if the text
+   *                             cannot be read
+   */
+  public SuggestionItem next() throws SpellCheckException {
+    while (suggestionParts.size() < 2) {
+      String term = terms.next();
+      if (term == null) {
+        break;
+      }
+      if (lowerCaseTerms) {
+        term = term.toLowerCase();
+      }
+      isLastCombi = spellCheck.lookupCompoundTerm(dataHolder, term, previousTerm, isLastCombi,
+          suggestionParts, maxEditDistance, null, termSuggestions);
+      previousTerm = term;
+    }
+    return suggestionParts.isEmpty() ? null : suggestionParts.remove(0);
+  }
+
+  /**
+   * Whitespace separated terms of a text, whitespace being the chars matched by {@code \s}, as
+   * for {@link io.github.mightguy.spellcheck.symspell.common.SpellHelper#tokenizeOnWhiteSpace}.
+   */
+  abstract static class Terms {
+
+    private final StringBuilder term = new StringBuilder();
+
+    /**
+     * @return the next term, null at the end of the text
+     */
+    final String next() throws SpellCheckException {
+      term.setLength(0);
+      int c;
+      while ((c = read()) >= 0) {
+        if (!isWhitespace(c)) {
+          term.append((char) c);
+          if (term.length() == MAX_TERM_LENGTH) {
+            break;
+          }
+        } else if (term.length() > 0) {
+          break;
+        }
+      }
+      return term.length() > 0 ? term.toString() : null;
+    }
+
+    /**
+     * @return the next char, -1 at the end of the text
+     */
+    abstract int read() throws SpellCheckException;
+
+    private static boolean isWhitespace(int c) {
+      return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+  }
+
+  /**
+   * Terms read from a reader, in blocks. The reader is not closed.
+   */
+  static final class ReaderTerms extends Terms {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    ReaderTerms(Reader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    int read() throws SpellCheckException {
+      if (position == limit) {
+        try {
+          limit = reader.read(buffer);
+        } catch (IOException ex) {
+          throw new SpellCheckException("Could not read the text", ex,
+              SpellCheckExceptionCode.LOOKUP_ERROR);
+        }
+        position = 0;
+        if (limit < 0) {
+          limit = 0;
+          return -1;
+        }
+      }
+      return buffer[position++];
+    }
+  }
+
+  /**
+   * Terms of a sequence of chunks, the end of a chunk ends a term as whitespace does.
+   */
+  static final class ChunkTerms extends Terms {
+
+    private final Iterator<? extends CharSequence> chunks;
+    private CharSequence chunk = "";
+    private int position;
+
+    ChunkTerms(Iterator<? extends CharSequence> chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    int read() {
+      if (position == chunk.length()) {
+        if (!chunks.hasNext()) {
+          return -1;
+        }
+        chunk = chunks.next();
+        position = 0;
+        // a separator between two chunks
+        return ' ';
+      }
+      return chunk.charAt(position++);
+    }
+  }
+}
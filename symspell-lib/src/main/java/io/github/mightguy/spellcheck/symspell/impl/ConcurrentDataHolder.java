@@ -0,0 +1,437 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SpellHelper;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dictionary for items with term->frequency which can be updated while it is looked up from other
+ * threads, for dictionaries that keep ingesting terms while serving queries.
+ *
+ * <p>Lookups never block: the dictionaries are {@link ConcurrentHashMap}s and the suggestions of
+ * a delete are appended to the spare capacity of their array, behind the entries published
+ * before, so the entries a lookup reads are never modified afterwards. Writers are
+ * serialized on a lock. A new word is put into the dictionary before its deletes, so a lookup
+ * which finds a word through its deletes also finds its frequency. The max keyword length and the
+ * minimum bigram count are published through {@link SpellCheckSettings#raiseMaxLength(int)} and
+ * {@link SpellCheckSettings#lowerBigramCountMin(double)}.
+ *
+ * <p>Lookups through {@link #getDeletes(CharSequence, int)} copy the suggestions of deletes grown
+ * since the last {@link #freeze()}, so call it once the dictionary is loaded. The holder does not
+ * track the prefixes of the words, see {@link DataHolder#isTermPrefix(String)}.
+ */
+public class ConcurrentDataHolder implements DataHolder {
+
+  private final Map<String, Double> wordsDictionary = new ConcurrentHashMap<>();
+  private final Map<String, Double> bigramsDictionary = new ConcurrentHashMap<>();
+  private final Map<String, String> exclusionDictionary = new ConcurrentHashMap<>();
+
+  /**
+   * Words below the count threshold, only used by the writers.
+   */
+  private final Map<String, Double> belowThresholdWords = new HashMap<>();
+
+  /**
+   * Suggestions of the deletes by the hash of the delete.
+   */
+  private final Map<Long, Postings> deletes = new ConcurrentHashMap<>();
+
+  private final SpellCheckSettings spellCheckSettings;
+
+  private final HashFunction hashFunction;
+
+  /**
+   * Serializes the modifications of the dictionary.
+   */
+  private final Object writeLock = new Object();
+
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  /**
+   * Create the data holder with the hash function selected by {@link
+   * SpellCheckSettings#getHashAlgorithm()}.
+   *
+   * @param spellCheckSettings settings used while ingesting the terms
+   */
+  public ConcurrentDataHolder(SpellCheckSettings spellCheckSettings) {
+    this(spellCheckSettings, spellCheckSettings.getHashAlgorithm().newHashFunction());
+  }
+
+  public ConcurrentDataHolder(SpellCheckSettings spellCheckSettings,
+      HashFunction hashFunction) {
+    this.spellCheckSettings = spellCheckSettings;
+    this.hashFunction = hashFunction;
+  }
+
+  /**
+   * Create/Update an entry in the dictionary, the same as {@link
+   * InMemoryDataHolder#addItem(DictionaryItem)}. Lookups running meanwhile see the word either
+   * not at all or with all its deletes.
+   *
+   * @param dictionaryItem {@link DictionaryItem}
+   * @return True if the word was added as a new correctly spelled word, or False if the word is
+   * added as a below threshold word, or updates an existing correctly spelled word.
+   */
+  @Override
+  public boolean addItem(DictionaryItem dictionaryItem) throws SpellCheckException {
+    if (dictionaryItem.getFrequency() <= 0 && spellCheckSettings.getCountThreshold() > 0) {
+      modificationCount.incrementAndGet();
+      return false;
+    }
+    String key = dictionaryItem.getTerm();
+    if (spellCheckSettings.isLowerCaseTerms()) {
+      key = key.toLowerCase();
+    }
+    double frequency = Math.max(dictionaryItem.getFrequency(), 0);
+
+    synchronized (writeLock) {
+      modificationCount.incrementAndGet();
+      frequency = addItemToBelowThreshold(key, frequency);
+      if (frequency == Double.MIN_VALUE || !addToDictionary(key, frequency)) {
+        return false;
+      }
+      spellCheckSettings.raiseMaxLength(key.length());
+
+      Set<String> editDeletes = SpellHelper
+          .getEditDeletes(key, spellCheckSettings.getMaxEditDistance(),
+              spellCheckSettings.getPrefixLength(), spellCheckSettings.getEditFactor());
+      for (String delete : editDeletes) {
+        long hash = hashFunction.hash(delete, 0, delete.length());
+        Postings postings = deletes.get(hash);
+        deletes.put(hash, postings == null ? new Postings(new String[]{key}, 1)
+            : postings.append(key));
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Subtract the frequency of the item. A word falling below the count threshold, or to 0, is
+   * removed from the dictionary before its deletes, so lookups never find a word through its
+   * deletes without finding its frequency too. The minimum bigram count of the settings is not
+   * raised again.
+   */
+  @Override
+  public boolean removeItem(DictionaryItem dictionaryItem) throws SpellCheckException {
+    String key = dictionaryItem.getTerm();
+    if (spellCheckSettings.isLowerCaseTerms()) {
+      key = key.toLowerCase();
+    }
+    double frequency = Math.max(dictionaryItem.getFrequency(), 0);
+
+    synchronized (writeLock) {
+      modificationCount.incrementAndGet();
+      if (subtract(bigramsDictionary, key, frequency) != null
+          || subtract(belowThresholdWords, key, frequency) != null) {
+        return false;
+      }
+      Double prevFreq = wordsDictionary.get(key);
+      if (prevFreq == null) {
+        return false;
+      }
+      double remaining = prevFreq - frequency;
+      if (remaining > 0 && remaining >= spellCheckSettings.getCountThreshold()) {
+        wordsDictionary.put(key, remaining);
+        return false;
+      }
+      wordsDictionary.remove(key);
+      if (remaining > 0 && spellCheckSettings.getCountThreshold() > 1) {
+        belowThresholdWords.put(key, remaining);
+      }
+
+      Set<String> editDeletes = SpellHelper
+          .getEditDeletes(key, spellCheckSettings.getMaxEditDistance(),
+              spellCheckSettings.getPrefixLength(), spellCheckSettings.getEditFactor());
+      for (String delete : editDeletes) {
+        long hash = hashFunction.hash(delete, 0, delete.length());
+        Postings postings = deletes.get(hash);
+        int index = postings == null ? -1 : postings.indexOf(key);
+        if (index < 0) {
+          continue;
+        }
+        if (postings.length == 1) {
+          deletes.remove(hash);
+        } else {
+          String[] removed = new String[postings.length - 1];
+          System.arraycopy(postings.suggestions, 0, removed, 0, index);
+          System.arraycopy(postings.suggestions, index + 1, removed, index,
+              removed.length - index);
+          deletes.put(hash, new Postings(removed, removed.length));
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Subtract the frequency from the entry of the key, and remove the entry once it drops to 0.
+   *
+   * @return the remaining frequency, null if there is no entry for the key
+   */
+  private static Double subtract(Map<String, Double> frequencies, String key, double frequency) {
+    Double prevFreq = frequencies.get(key);
+    if (prevFreq == null) {
+      return null;
+    }
+    double remaining = prevFreq - frequency;
+    if (remaining > 0) {
+      frequencies.put(key, remaining);
+    } else {
+      frequencies.remove(key);
+    }
+    return remaining;
+  }
+
+  private boolean addToDictionary(String key, double frequency) {
+    if (spellCheckSettings.isDoKeySplit()
+        && key.split(spellCheckSettings.getKeySplitRegex()).length > 1) {
+      bigramsDictionary.put(key, frequency);
+      spellCheckSettings.lowerBigramCountMin(frequency);
+      return false;
+    }
+    wordsDictionary.put(key, frequency);
+    return true;
+  }
+
+  private double addItemToBelowThreshold(String key, double frequency) {
+    Double prevFreq;
+    if (spellCheckSettings.getCountThreshold() > 1
+        && (prevFreq = belowThresholdWords.get(key)) != null) {
+      frequency =
+          prevFreq + (Double.MAX_VALUE - prevFreq > frequency ? frequency : Double.MAX_VALUE);
+      if (frequency >= spellCheckSettings.getCountThreshold()) {
+        belowThresholdWords.remove(key);
+      } else {
+        belowThresholdWords.put(key, frequency);
+        return Double.MIN_VALUE;
+      }
+    } else if ((prevFreq = wordsDictionary.get(key)) != null) {
+      frequency =
+          prevFreq + (Double.MAX_VALUE - prevFreq > frequency ? frequency : Double.MAX_VALUE);
+      addToDictionary(key, frequency);
+      return Double.MIN_VALUE;
+    } else if (frequency < spellCheckSettings.getCountThreshold()) {
+      belowThresholdWords.put(key, frequency);
+      return Double.MIN_VALUE;
+    }
+    return frequency;
+  }
+
+  @Override
+  public Double getItemFrequency(String term) {
+    return wordsDictionary.get(term);
+  }
+
+  @Override
+  public Double getItemFrequencyBiGram(String term) {
+    return bigramsDictionary.get(term);
+  }
+
+  @Override
+  public String[] getDeletes(String key) {
+    return getDeletes(key, key.length());
+  }
+
+  @Override
+  public String[] getDeletes(CharSequence key, int length) {
+    Postings postings = deletes.get(hashFunction.hash(key, 0, length));
+    if (postings == null) {
+      return null;
+    }
+    return postings.length == postings.suggestions.length ? postings.suggestions
+        : Arrays.copyOf(postings.suggestions, postings.length);
+  }
+
+  @Override
+  public int getDeletes(CharSequence key, int length, String[] buffer) {
+    Postings postings = deletes.get(hashFunction.hash(key, 0, length));
+    if (postings == null) {
+      return 0;
+    }
+    if (postings.length <= buffer.length) {
+      System.arraycopy(postings.suggestions, 0, buffer, 0, postings.length);
+    }
+    return postings.length;
+  }
+
+  /**
+   * Trim the suggestions of every delete, which grow with spare capacity while words are added, to
+   * their exact size. Lookups running meanwhile keep reading the untrimmed suggestions.
+   */
+  @Override
+  public void freeze() {
+    synchronized (writeLock) {
+      deletes.replaceAll((hash, postings) -> postings.length == postings.suggestions.length
+          ? postings : new Postings(Arrays.copyOf(postings.suggestions, postings.length),
+          postings.length));
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return wordsDictionary.size();
+  }
+
+  /**
+   * Remove the words, lookups running meanwhile may still find some of them.
+   */
+  @Override
+  public boolean clear() {
+    synchronized (writeLock) {
+      modificationCount.incrementAndGet();
+      deletes.clear();
+      wordsDictionary.clear();
+      belowThresholdWords.clear();
+      return false;
+    }
+  }
+
+  @Override
+  public void addExclusionItem(String key, String value) {
+    modificationCount.incrementAndGet();
+    exclusionDictionary.put(key, value);
+  }
+
+  @Override
+  public void addExclusionItems(Map<String, String> values) {
+    modificationCount.incrementAndGet();
+    exclusionDictionary.putAll(values);
+  }
+
+  @Override
+  public String getExclusionItem(String key) {
+    return exclusionDictionary.get(key);
+  }
+
+  @Override
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
+
+  /**
+   * Export the index in the format of {@link InMemoryDataHolder#save(OutputStream)}. Writers wait
+   * until it is written, lookups do not.
+   */
+  @Override
+  public void save(OutputStream outputStream) throws SpellCheckException {
+    synchronized (writeLock) {
+      try {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        IndexFormat.writeHeader(out, spellCheckSettings, hashFunction);
+        Map<String, Integer> termIds = new HashMap<>(wordsDictionary.size() * 2);
+        out.writeInt(wordsDictionary.size());
+        for (Map.Entry<String, Double> word : wordsDictionary.entrySet()) {
+          termIds.put(word.getKey(), termIds.size());
+          IndexFormat.writeString(out, word.getKey());
+          out.writeDouble(word.getValue());
+        }
+        IndexFormat.writeFrequencies(out, belowThresholdWords);
+        IndexFormat.writeFrequencies(out, bigramsDictionary);
+        IndexFormat.writeExclusions(out, exclusionDictionary);
+        out.writeInt(deletes.size());
+        for (Map.Entry<Long, Postings> delete : deletes.entrySet()) {
+          Postings postings = delete.getValue();
+          out.writeLong(delete.getKey());
+          out.writeInt(postings.length);
+          for (int i = 0; i < postings.length; i++) {
+            out.writeInt(termIds.get(postings.suggestions[i]));
+          }
+        }
+        out.flush();
+      } catch (IOException ex) {
+        throw new SpellCheckException("Unable to save the index", ex,
+            SpellCheckExceptionCode.DUMP_ERROR);
+      }
+    }
+  }
+
+  /**
+   * Replace the content with an index exported by {@link #save(OutputStream)}. Lookups running
+   * meanwhile see the index partly loaded.
+   */
+  @Override
+  public void load(InputStream inputStream) throws SpellCheckException {
+    synchronized (writeLock) {
+      clear();
+      bigramsDictionary.clear();
+      exclusionDictionary.clear();
+      try {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        IndexFormat.readHeader(in, spellCheckSettings, hashFunction);
+        String[] terms = new String[in.readInt()];
+        for (int termId = 0; termId < terms.length; termId++) {
+          terms[termId] = IndexFormat.readString(in);
+          wordsDictionary.put(terms[termId], in.readDouble());
+        }
+        IndexFormat.readFrequencies(in, belowThresholdWords);
+        IndexFormat.readFrequencies(in, bigramsDictionary);
+        IndexFormat.readExclusions(in, exclusionDictionary);
+        int deleteCount = in.readInt();
+        for (int i = 0; i < deleteCount; i++) {
+          long hash = in.readLong();
+          String[] suggestions = new String[in.readInt()];
+          for (int j = 0; j < suggestions.length; j++) {
+            suggestions[j] = terms[in.readInt()];
+          }
+          deletes.put(hash, new Postings(suggestions, suggestions.length));
+        }
+      } catch (IOException | RuntimeException ex) {
+        clear();
+        throw new SpellCheckException("Unable to load the index", ex,
+            SpellCheckExceptionCode.DUMP_ERROR);
+      }
+    }
+  }
+
+  /**
+   * The suggestions of a delete, the first length entries of the array. A writer appends to the
+   * spare capacity of the array and publishes a new instance, so the entries of an instance are
+   * never modified once published.
+   */
+  private static final class Postings {
+
+    private final String[] suggestions;
+    private final int length;
+
+    Postings(String[] suggestions, int length) {
+      this.suggestions = suggestions;
+      this.length = length;
+    }
+
+    /**
+     * Only called by the writers on the latest instance of the delete.
+     */
+    Postings append(String suggestion) {
+      String[] grown = length < suggestions.length ? suggestions
+          : Arrays.copyOf(suggestions, length << 1);
+      grown[length] = suggestion;
+      return new Postings(grown, length + 1);
+    }
+
+    int indexOf(String suggestion) {
+      for (int i = 0; i < length; i++) {
+        if (suggestions[i].equals(suggestion)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+
+/**
+ * Deadline of a single lookup call with a time budget, shared by the nested lookups of a compound
+ * lookup. Not thread safe.
+ */
+final class Deadline {
+
+  /**
+   * {@link System#nanoTime()} is only read on every 8th check, the work between two checks is
+   * far below the resolution of a budget.
+   */
+  private static final int CHECK_INTERVAL_MASK = 7;
+
+  private final long deadlineNanos;
+  private int checks;
+  private boolean expired;
+
+  private Deadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Start the deadline of the options.
+   *
+   * @return the deadline, or null if the options have no budget
+   */
+  static Deadline start(LookupOptions lookupOptions) {
+    if (lookupOptions == null || !lookupOptions.hasBudget()) {
+      return null;
+    }
+    return new Deadline(System.nanoTime() + lookupOptions.getBudgetNanos());
+  }
+
+  static boolean hasExpired(Deadline deadline) {
+    return deadline != null && deadline.isExpired();
+  }
+
+  static boolean isTruncated(Deadline deadline) {
+    return deadline != null && deadline.expired;
+  }
+
+  /**
+   * Whether the budget is used up. Once expired, it stays expired and the call counts as
+   * truncated.
+   */
+  boolean isExpired() {
+    if (!expired && (checks++ & CHECK_INTERVAL_MASK) == 0
+        && System.nanoTime() - deadlineNanos >= 0) {
+      expired = true;
+    }
+    return expired;
+  }
+}
@@ -7,10 +7,20 @@ import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
 import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
 import io.github.mightguy.spellcheck.symspell.common.SpellHelper;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class to create in memory dictionary for the items with term->frequency
@@ -38,6 +48,17 @@ public class InMemoryDataHolder implements DataHolder {
    */
   private Map<Long, String[]> deletes = new HashMap<>();
 
+  /**
+   * Deletes whose suggestions grew with spare capacity since the last {@link #freeze()}, which
+   * runs before the next read so lookups return the suggestions without copying.
+   */
+  private final Set<Long> untrimmedDeletes = new HashSet<>();
+  private volatile boolean frozen = true;
+
+  /**
+   * Trie over the correctly spelled words, see {@link #isTermPrefix(String)}.
+   */
+  private final CharTrie prefixes = new CharTrie();
 
   /**
    * Spell check settings to use the values while ingesting the terms.
@@ -46,6 +67,22 @@ public class InMemoryDataHolder implements DataHolder {
 
   private HashFunction hashFunction;
 
+  /**
+   * Incremented by every modification of the dictionary, see {@link
+   * DataHolder#getModificationCount()}.
+   */
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  /**
+   * Create the data holder with the hash function selected by {@link
+   * SpellCheckSettings#getHashAlgorithm()}.
+   *
+   * @param spellCheckSettings settings used while ingesting the terms
+   */
+  public InMemoryDataHolder(SpellCheckSettings spellCheckSettings) {
+    this(spellCheckSettings, spellCheckSettings.getHashAlgorithm().newHashFunction());
+  }
+
   public InMemoryDataHolder(
       SpellCheckSettings spellCheckSettings,
       HashFunction hashFunction) {
@@ -65,6 +102,7 @@ public class InMemoryDataHolder implements DataHolder {
    */
   @Override
   public boolean addItem(final DictionaryItem dictionaryItem) throws SpellCheckException {
+    modificationCount.incrementAndGet();
 
     if (dictionaryItem.getFrequency() <= 0 && spellCheckSettings.getCountThreshold() > 0) {
       return false;
@@ -104,27 +142,30 @@ public class InMemoryDataHolder implements DataHolder {
      * word occurs in the corpus, even if the same term existed
      * before in the dictionary as an edit from another word
      */
-    if (key.length() > spellCheckSettings.getMaxLength()) {
-      spellCheckSettings.setMaxLength(key.length());
-    }
+    spellCheckSettings.raiseMaxLength(key.length());
+
+    prefixes.add(key);
 
     //create deletes
     Set<String> editDeletes = SpellHelper
         .getEditDeletes(key, spellCheckSettings.getMaxEditDistance(),
             spellCheckSettings.getPrefixLength(), spellCheckSettings.getEditFactor());
     for (String delete : editDeletes) {
-      Long hash = hashFunction.hash(delete);
-      String[] suggestions;
-      if (deletes.containsKey(hash)) {
-        suggestions = deletes.get(hash);
-        String[] newSuggestions = Arrays.copyOf(suggestions, suggestions.length + 1);
-        deletes.put(hash, newSuggestions);
-        suggestions = newSuggestions;
-      } else {
-        suggestions = new String[1];
+      long hash = hashFunction.hash(delete, 0, delete.length());
+      String[] suggestions = deletes.get(hash);
+      if (suggestions == null) {
+        deletes.put(hash, new String[]{key});
+        continue;
+      }
+      // grow by doubling, the unused tail stays null until freeze() trims it
+      int length = suggestionCount(suggestions);
+      if (length == suggestions.length) {
+        suggestions = Arrays.copyOf(suggestions, length << 1);
         deletes.put(hash, suggestions);
+        untrimmedDeletes.add(hash);
+        frozen = false;
       }
-      suggestions[suggestions.length - 1] = key;
+      suggestions[length] = key;
     }
     return true;
   }
@@ -134,9 +175,7 @@ public class InMemoryDataHolder implements DataHolder {
     if (spellCheckSettings.isDoKeySplit()
         && key.split(spellCheckSettings.getKeySplitRegex()).length > 1) {
       bigramsDictionary.put(key, frequency);
-      if (frequency < spellCheckSettings.getBigramCountMin()) {
-        spellCheckSettings.setBigramCountMin(frequency);
-      }
+      spellCheckSettings.lowerBigramCountMin(frequency);
       return false;
     } else {
       wordsDictionary.put(key, frequency);
@@ -157,7 +196,55 @@ public class InMemoryDataHolder implements DataHolder {
 
   @Override
   public String[] getDeletes(String key) {
-    return deletes.getOrDefault(hashFunction.hash(key), null);
+    return getDeletes(key, key.length());
+  }
+
+  @Override
+  public String[] getDeletes(CharSequence key, int length) {
+    if (!frozen) {
+      freeze();
+    }
+    return deletes.getOrDefault(hashFunction.hash(key, 0, length), null);
+  }
+
+  /**
+   * Trim the suggestions of the deletes grown since the last call, which grow with spare capacity
+   * while words are added, to their exact size so lookups can return them without copying. Runs
+   * on the first lookup after words were added if not called before.
+   */
+  @Override
+  public synchronized void freeze() {
+    if (frozen) {
+      return;
+    }
+    for (Long hash : untrimmedDeletes) {
+      String[] suggestions = deletes.get(hash);
+      deletes.put(hash, Arrays.copyOf(suggestions, suggestionCount(suggestions)));
+    }
+    untrimmedDeletes.clear();
+    frozen = true;
+  }
+
+  /**
+   * Number of suggestions in the array, the suggestions fill a prefix of the array.
+   */
+  private static int suggestionCount(String[] suggestions) {
+    int low = 0;
+    int high = suggestions.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (suggestions[mid] == null) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public boolean isTermPrefix(String prefix) {
+    return prefixes.hasPrefix(prefix);
   }
 
   @Override
@@ -167,8 +254,12 @@ public class InMemoryDataHolder implements DataHolder {
 
   @Override
   public boolean clear() {
+    modificationCount.incrementAndGet();
     wordsDictionary.clear();
     deletes.clear();
+    untrimmedDeletes.clear();
+    frozen = true;
+    prefixes.clear();
     belowThresholdWords.clear();
     return false;
   }
@@ -178,7 +269,7 @@ public class InMemoryDataHolder implements DataHolder {
       double prevFreq = belowThresholdWords.get(key);
       frequency =
           prevFreq + (Double.MAX_VALUE - prevFreq > frequency ? frequency : Double.MAX_VALUE);
-      if (frequency > spellCheckSettings.getCountThreshold()) {
+      if (frequency >= spellCheckSettings.getCountThreshold()) {
         belowThresholdWords.remove(key);
       } else {
         belowThresholdWords.put(key, frequency);
@@ -197,13 +288,79 @@ public class InMemoryDataHolder implements DataHolder {
     return frequency;
   }
 
+  @Override
+  public void save(OutputStream outputStream) throws SpellCheckException {
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+      IndexFormat.writeHeader(out, spellCheckSettings, hashFunction);
+      Map<String, Integer> termIds = new HashMap<>(wordsDictionary.size() * 2);
+      out.writeInt(wordsDictionary.size());
+      for (Map.Entry<String, Double> word : wordsDictionary.entrySet()) {
+        termIds.put(word.getKey(), termIds.size());
+        IndexFormat.writeString(out, word.getKey());
+        out.writeDouble(word.getValue());
+      }
+      IndexFormat.writeFrequencies(out, belowThresholdWords);
+      IndexFormat.writeFrequencies(out, bigramsDictionary);
+      IndexFormat.writeExclusions(out, exclusionDictionary);
+      out.writeInt(deletes.size());
+      for (Map.Entry<Long, String[]> delete : deletes.entrySet()) {
+        int length = suggestionCount(delete.getValue());
+        out.writeLong(delete.getKey());
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+          out.writeInt(termIds.get(delete.getValue()[i]));
+        }
+      }
+      out.flush();
+    } catch (IOException ex) {
+      throw new SpellCheckException("Unable to save the index", ex,
+          SpellCheckExceptionCode.DUMP_ERROR);
+    }
+  }
+
+  @Override
+  public void load(InputStream inputStream) throws SpellCheckException {
+    clear();
+    bigramsDictionary.clear();
+    exclusionDictionary.clear();
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+      IndexFormat.readHeader(in, spellCheckSettings, hashFunction);
+      String[] terms = new String[in.readInt()];
+      for (int termId = 0; termId < terms.length; termId++) {
+        terms[termId] = IndexFormat.readString(in);
+        wordsDictionary.put(terms[termId], in.readDouble());
+        prefixes.add(terms[termId]);
+      }
+      IndexFormat.readFrequencies(in, belowThresholdWords);
+      IndexFormat.readFrequencies(in, bigramsDictionary);
+      IndexFormat.readExclusions(in, exclusionDictionary);
+      int deleteCount = in.readInt();
+      for (int i = 0; i < deleteCount; i++) {
+        long hash = in.readLong();
+        String[] suggestions = new String[in.readInt()];
+        for (int j = 0; j < suggestions.length; j++) {
+          suggestions[j] = terms[in.readInt()];
+        }
+        deletes.put(hash, suggestions);
+      }
+    } catch (IOException | RuntimeException ex) {
+      clear();
+      throw new SpellCheckException("Unable to load the index", ex,
+          SpellCheckExceptionCode.DUMP_ERROR);
+    }
+  }
+
   @Override
   public void addExclusionItem(String key, String value) {
+    modificationCount.incrementAndGet();
     exclusionDictionary.put(key, value);
   }
 
   @Override
   public void addExclusionItems(Map<String, String> values) {
+    modificationCount.incrementAndGet();
     exclusionDictionary.putAll(values);
   }
 
@@ -211,4 +368,9 @@ public class InMemoryDataHolder implements DataHolder {
   public String getExclusionItem(String key) {
     return exclusionDictionary.getOrDefault(key, null);
   }
+
+  @Override
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
 }
@@ -0,0 +1,179 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sequential binary format used by {@link InMemoryDataHolder#save}, {@link
+ * PrimitiveDataHolder#save} and {@link ConcurrentDataHolder#save}, so a built index can be
+ * reloaded without generating the deletes again. All of them read and write the same layout.
+ * <pre>
+ * header      magic, version, hash function name and check value, and the settings used to
+ *             build the index
+ * terms       count, then (term, frequency) in term id order
+ * below       count, then (term, frequency) of the words below the count threshold
+ * bigrams     count, then (bigram, frequency)
+ * exclusions  count, then (key, value)
+ * deletes     count, then (delete hash, postings length, term ids)
+ * </pre>
+ */
+final class IndexFormat {
+
+  static final int MAGIC = 0x53594d49;
+  static final int VERSION = 3;
+
+  /**
+   * Chars hashed for the check value of the header, covering both halves of the chars and an odd
+   * length.
+   */
+  private static final String HASH_CHECK = "SymSpell index ß日";
+
+  private IndexFormat() {
+  }
+
+  /**
+   * Write the header describing how the index was built.
+   */
+  static void writeHeader(DataOutputStream out, SpellCheckSettings spellCheckSettings,
+      HashFunction hashFunction) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    writeString(out, hashFunction.getClass().getName());
+    out.writeLong(hashCheck(hashFunction));
+    out.writeDouble(spellCheckSettings.getMaxEditDistance());
+    out.writeInt(spellCheckSettings.getPrefixLength());
+    out.writeDouble(spellCheckSettings.getEditFactor());
+    out.writeLong(spellCheckSettings.getCountThreshold());
+    out.writeBoolean(spellCheckSettings.isLowerCaseTerms());
+    out.writeBoolean(spellCheckSettings.isDoKeySplit());
+    writeString(out, spellCheckSettings.getKeySplitRegex());
+    out.writeInt(spellCheckSettings.getMaxLength());
+    out.writeDouble(spellCheckSettings.getBigramCountMin());
+  }
+
+  /**
+   * Read the header and verify the index was built with the same hash function and settings the
+   * data holder uses. The max term length and the minimum bigram count of the index are applied
+   * to the settings the same way ingesting the terms would.
+   *
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} if the index is
+   *                             not compatible
+   */
+  static void readHeader(DataInputStream in, SpellCheckSettings spellCheckSettings,
+      HashFunction hashFunction) throws IOException, SpellCheckException {
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Unsupported index format");
+    }
+    String indexHashFunction = readString(in);
+    if (!indexHashFunction.equals(hashFunction.getClass().getName())) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Index was built with " + indexHashFunction + " but "
+              + hashFunction.getClass().getName() + " was provided");
+    }
+    if (in.readLong() != hashCheck(hashFunction)) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Index was built with other hash values of " + indexHashFunction);
+    }
+    double maxEditDistance = in.readDouble();
+    int prefixLength = in.readInt();
+    double editFactor = in.readDouble();
+    long countThreshold = in.readLong();
+    boolean lowerCaseTerms = in.readBoolean();
+    boolean doKeySplit = in.readBoolean();
+    String keySplitRegex = readString(in);
+    checkSettings(spellCheckSettings, maxEditDistance, prefixLength, editFactor, countThreshold,
+        lowerCaseTerms, doKeySplit, keySplitRegex);
+    int maxLength = in.readInt();
+    spellCheckSettings.raiseMaxLength(maxLength);
+    double bigramCountMin = in.readDouble();
+    spellCheckSettings.lowerBigramCountMin(bigramCountMin);
+  }
+
+  /**
+   * Check value of the hash function, the hash of fixed chars. An index or snapshot is only read
+   * with a hash function returning the same value, so a file written before the hash function
+   * changed its values is rejected rather than looked up with hashes that no longer match.
+   */
+  static long hashCheck(HashFunction hashFunction) {
+    return hashFunction.hash(HASH_CHECK, 0, HASH_CHECK.length());
+  }
+
+  /**
+   * Verify the settings an index or snapshot was built with are those the data holder uses, the
+   * deletes of the terms depend on all of them.
+   *
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} if any differs
+   */
+  static void checkSettings(SpellCheckSettings spellCheckSettings, double maxEditDistance,
+      int prefixLength, double editFactor, long countThreshold, boolean lowerCaseTerms,
+      boolean doKeySplit, String keySplitRegex) throws SpellCheckException {
+    if (maxEditDistance != spellCheckSettings.getMaxEditDistance()
+        || prefixLength != spellCheckSettings.getPrefixLength()
+        || editFactor != spellCheckSettings.getEditFactor()
+        || countThreshold != spellCheckSettings.getCountThreshold()
+        || lowerCaseTerms != spellCheckSettings.isLowerCaseTerms()
+        || doKeySplit != spellCheckSettings.isDoKeySplit()
+        || !keySplitRegex.equals(spellCheckSettings.getKeySplitRegex())) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Index was built with different settings, maxEditDistance: " + maxEditDistance
+              + ", prefixLength: " + prefixLength + ", editFactor: " + editFactor
+              + ", countThreshold: " + countThreshold);
+    }
+  }
+
+  static void writeFrequencies(DataOutputStream out, Map<String, Double> frequencies)
+      throws IOException {
+    out.writeInt(frequencies.size());
+    for (Map.Entry<String, Double> entry : frequencies.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeDouble(entry.getValue());
+    }
+  }
+
+  static void readFrequencies(DataInputStream in, Map<String, Double> frequencies)
+      throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String key = readString(in);
+      frequencies.put(key, in.readDouble());
+    }
+  }
+
+  static void writeExclusions(DataOutputStream out, Map<String, String> exclusions)
+      throws IOException {
+    out.writeInt(exclusions.size());
+    for (Map.Entry<String, String> entry : exclusions.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  static void readExclusions(DataInputStream in, Map<String, String> exclusions)
+      throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String key = readString(in);
+      exclusions.put(key, readString(in));
+    }
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeInt(value.length());
+    out.writeChars(value);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    char[] chars = new char[in.readInt()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = in.readChar();
+    }
+    return new String(chars);
+  }
+}
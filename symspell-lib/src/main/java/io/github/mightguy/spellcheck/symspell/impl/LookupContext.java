@@ -0,0 +1,337 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import java.util.Arrays;
+
+/**
+ * Scratch state of a single {@link SymSpellCheck#lookup} call, reused by the following lookups
+ * of the same thread so a lookup does not allocate anything but its result and what the data
+ * holder allocates to hand out the suggestions of a delete.
+ *
+ * <p>Candidates are appended to one char array and consumed in insertion order. The set of
+ * considered deletes is an open addressing table of candidate indexes probed by the hash of the
+ * candidate chars, so no delete is ever turned into a String. The set of considered suggestions
+ * holds the suggestion Strings handed out by the data holder. Both sets record the slots they
+ * filled and are cleared, not reallocated, by {@link #reset(int)}, which only visits those slots
+ * so its cost follows the size of the previous lookup rather than the capacity kept from the
+ * largest one.
+ */
+final class LookupContext {
+
+  private static final int MIN_CAPACITY = 64;
+  /**
+   * Arrays grown beyond this many entries by an unusually large lookup are released on the next
+   * reset instead of being held by the thread forever.
+   */
+  private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+  private char[] chars = new char[MIN_CAPACITY * 8];
+  private int charCount;
+  private int[] starts = new int[MIN_CAPACITY];
+  private int[] lengths = new int[MIN_CAPACITY];
+  private int[] hashes = new int[MIN_CAPACITY];
+  private int candidateCount;
+  private int head;
+
+  /**
+   * Considered deletes, candidate index + 1 per slot, 0 marks an empty slot.
+   */
+  private int[] deleteTable = new int[MIN_CAPACITY * 2];
+  private int[] deleteSlots = new int[MIN_CAPACITY];
+  private int deleteCount;
+
+  private String[] suggestionTable = new String[MIN_CAPACITY * 2];
+  private int[] suggestionSlots = new int[MIN_CAPACITY];
+  private int suggestionCount;
+
+  /**
+   * Suggestions of the probed delete, filled by {@link
+   * io.github.mightguy.spellcheck.symspell.api.DataHolder#getDeletes(CharSequence, int,
+   * String[])}.
+   */
+  private String[] suggestionBuffer = new String[MIN_CAPACITY];
+
+  private char[] candidateChars = new char[MIN_CAPACITY];
+  /**
+   * Polynomial hashes of the chars before and from each index of the current candidate, and the
+   * powers of 31 to combine them.
+   */
+  private int[] prefixHashes = new int[MIN_CAPACITY + 1];
+  private int[] suffixHashes = new int[MIN_CAPACITY + 1];
+  private int[] powers = powers(MIN_CAPACITY + 1);
+  private final CharSlice candidate = new CharSlice();
+  private final TopSuggestions topSuggestions = new TopSuggestions();
+
+  /**
+   * Clear the candidates and both sets for a lookup of a phrase of the given length.
+   */
+  void reset(int phraseLength) {
+    if (chars.length > MAX_RETAINED_CAPACITY * 8 || starts.length > MAX_RETAINED_CAPACITY) {
+      chars = new char[MIN_CAPACITY * 8];
+      starts = new int[MIN_CAPACITY];
+      lengths = new int[MIN_CAPACITY];
+      hashes = new int[MIN_CAPACITY];
+    }
+    charCount = 0;
+    candidateCount = 0;
+    head = 0;
+
+    if (deleteTable.length > MAX_RETAINED_CAPACITY * 2) {
+      deleteTable = new int[MIN_CAPACITY * 2];
+      deleteSlots = new int[MIN_CAPACITY];
+    } else {
+      for (int i = 0; i < deleteCount; i++) {
+        deleteTable[deleteSlots[i]] = 0;
+      }
+    }
+    deleteCount = 0;
+
+    if (suggestionTable.length > MAX_RETAINED_CAPACITY * 2) {
+      suggestionTable = new String[MIN_CAPACITY * 2];
+      suggestionSlots = new int[MIN_CAPACITY];
+    } else {
+      for (int i = 0; i < suggestionCount; i++) {
+        suggestionTable[suggestionSlots[i]] = null;
+      }
+    }
+    suggestionCount = 0;
+
+    if (suggestionBuffer.length > MAX_RETAINED_CAPACITY) {
+      suggestionBuffer = new String[MIN_CAPACITY];
+    }
+
+    if (candidateChars.length < phraseLength) {
+      int capacity = Math.max(phraseLength, candidateChars.length << 1);
+      candidateChars = new char[capacity];
+      prefixHashes = new int[capacity + 1];
+      suffixHashes = new int[capacity + 1];
+      powers = powers(capacity + 1);
+    }
+  }
+
+  /**
+   * Queue the chars [0, length) of the phrase as a candidate without recording it as a
+   * considered delete.
+   */
+  void addCandidate(String phrase, int length) {
+    ensureCharCapacity(length);
+    phrase.getChars(0, length, chars, charCount);
+    commitCandidate(length, 0);
+  }
+
+  /**
+   * Queue the current candidate without its char at the given index, unless the resulting
+   * delete was considered before.
+   *
+   * @param index index of the char to delete from {@link #candidate()}
+   */
+  void addDelete(int index) {
+    int length = candidate.length - 1;
+    // the polynomial hash of the delete combines the hashes of the chars before and after the
+    // gap, so deletes seen before are rejected without copying or rehashing their chars
+    int hash = prefixHashes[index] * powers[length - index] + suffixHashes[index + 1];
+    int mask = deleteTable.length - 1;
+    int slot = mix(hash) & mask;
+    while (deleteTable[slot] != 0) {
+      int other = deleteTable[slot] - 1;
+      if (hashes[other] == hash && lengths[other] == length
+          && equalsCandidateWithout(starts[other], index)) {
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    ensureCharCapacity(length);
+    System.arraycopy(candidateChars, 0, chars, charCount, index);
+    System.arraycopy(candidateChars, index + 1, chars, charCount + index, length - index);
+    deleteTable[slot] = candidateCount + 1;
+    commitCandidate(length, hash);
+    if (deleteCount == deleteSlots.length) {
+      deleteSlots = Arrays.copyOf(deleteSlots, deleteCount << 1);
+    }
+    deleteSlots[deleteCount++] = slot;
+    if (deleteCount * 4 >= deleteTable.length * 3) {
+      rehashDeletes();
+    }
+  }
+
+  boolean hasCandidate() {
+    return head < candidateCount;
+  }
+
+  /**
+   * Move to the next queued candidate.
+   *
+   * @return the candidate, valid until the next call
+   */
+  CharSlice nextCandidate() {
+    int length = lengths[head];
+    System.arraycopy(chars, starts[head], candidateChars, 0, length);
+    head++;
+    candidate.length = length;
+    prefixHashes[0] = 0;
+    for (int i = 0; i < length; i++) {
+      prefixHashes[i + 1] = 31 * prefixHashes[i] + candidateChars[i];
+    }
+    suffixHashes[length] = 0;
+    for (int i = length - 1; i >= 0; i--) {
+      suffixHashes[i] = candidateChars[i] * powers[length - 1 - i] + suffixHashes[i + 1];
+    }
+    return candidate;
+  }
+
+  CharSlice candidate() {
+    return candidate;
+  }
+
+  String[] suggestionBuffer() {
+    return suggestionBuffer;
+  }
+
+  /**
+   * Replace the suggestion buffer by one holding at least the given number of suggestions.
+   *
+   * @return the new buffer
+   */
+  String[] growSuggestionBuffer(int capacity) {
+    suggestionBuffer = new String[Math.max(capacity, suggestionBuffer.length << 1)];
+    return suggestionBuffer;
+  }
+
+  TopSuggestions topSuggestions() {
+    return topSuggestions;
+  }
+
+  /**
+   * Add the suggestion to the considered suggestions.
+   *
+   * @return true if the suggestion was not considered before
+   */
+  boolean addSuggestion(String suggestion) {
+    int mask = suggestionTable.length - 1;
+    int slot = mix(suggestion.hashCode()) & mask;
+    while (suggestionTable[slot] != null) {
+      if (suggestionTable[slot].equals(suggestion)) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    suggestionTable[slot] = suggestion;
+    if (suggestionCount == suggestionSlots.length) {
+      suggestionSlots = Arrays.copyOf(suggestionSlots, suggestionCount << 1);
+    }
+    suggestionSlots[suggestionCount++] = slot;
+    if (suggestionCount * 4 >= suggestionTable.length * 3) {
+      rehashSuggestions();
+    }
+    return true;
+  }
+
+  private void commitCandidate(int length, int hash) {
+    if (candidateCount == starts.length) {
+      int capacity = candidateCount << 1;
+      starts = Arrays.copyOf(starts, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    starts[candidateCount] = charCount;
+    lengths[candidateCount] = length;
+    hashes[candidateCount] = hash;
+    candidateCount++;
+    charCount += length;
+  }
+
+  /**
+   * Compare the chars starting at the offset with the current candidate without the char at the
+   * gap.
+   */
+  private boolean equalsCandidateWithout(int from, int gap) {
+    for (int i = 0; i < gap; i++) {
+      if (chars[from + i] != candidateChars[i]) {
+        return false;
+      }
+    }
+    for (int i = gap + 1; i < candidate.length; i++) {
+      if (chars[from + i - 1] != candidateChars[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void ensureCharCapacity(int length) {
+    if (charCount + length > chars.length) {
+      chars = Arrays.copyOf(chars, Math.max(charCount + length, chars.length << 1));
+    }
+  }
+
+  private void rehashDeletes() {
+    int[] table = new int[deleteTable.length << 1];
+    int mask = table.length - 1;
+    for (int i = 0; i < deleteCount; i++) {
+      int entry = deleteTable[deleteSlots[i]];
+      int slot = mix(hashes[entry - 1]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = entry;
+      deleteSlots[i] = slot;
+    }
+    deleteTable = table;
+  }
+
+  private void rehashSuggestions() {
+    String[] table = new String[suggestionTable.length << 1];
+    int mask = table.length - 1;
+    for (int i = 0; i < suggestionCount; i++) {
+      String suggestion = suggestionTable[suggestionSlots[i]];
+      int slot = mix(suggestion.hashCode()) & mask;
+      while (table[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = suggestion;
+      suggestionSlots[i] = slot;
+    }
+    suggestionTable = table;
+  }
+
+  private static int[] powers(int count) {
+    int[] powers = new int[count];
+    powers[0] = 1;
+    for (int i = 1; i < count; i++) {
+      powers[i] = 31 * powers[i - 1];
+    }
+    return powers;
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Read only view of the chars of the current candidate.
+   */
+  final class CharSlice implements CharSequence {
+
+    private int length;
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return candidateChars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return new String(candidateChars, 0, length);
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Immutable dictionary served from a read only snapshot file, see {@link SnapshotFormat}. The
+ * words, bigrams, exclusions and the deletes index stay off heap in a single {@link
+ * FileChannel#map} mapping, so every JVM on the host opening the same file shares its pages
+ * through the OS page cache and nothing is rebuilt at startup.
+ *
+ * <p>Snapshots are written from a fully built {@link PrimitiveDataHolder} with {@link
+ * #write(PrimitiveDataHolder, Path)}. The mapping is released when the holder is garbage
+ * collected.
+ *
+ * <p>The holder is read only. Every method which would change the dictionary, {@link
+ * #addItem}, {@link #addItems}, {@link #removeItem}, {@link #clear}, {@link #load} and the
+ * exclusion setters, throws {@link UnsupportedOperationException}, the one rejection all of them
+ * can throw as the exclusion setters of {@link DataHolder} declare no checked exception. A new
+ * dictionary is written as a new snapshot and swapped in instead.
+ */
+public class MappedDataHolder implements DataHolder {
+
+  private final ByteBuffer buffer;
+  private final HashFunction hashFunction;
+
+  private final int termCount;
+  private final int termMask;
+  private final int termTable;
+  private final int termEntries;
+  private final int bigramMask;
+  private final int bigramTable;
+  private final int bigramEntries;
+  private final int exclusionMask;
+  private final int exclusionTable;
+  private final int exclusionEntries;
+  private final int deleteMask;
+  private final int deleteShift;
+  private final int deleteTable;
+  private final int postings;
+
+  /**
+   * Open a snapshot written by {@link #write(PrimitiveDataHolder, Path)} with the hash function
+   * selected by {@link SpellCheckSettings#getHashAlgorithm()}.
+   *
+   * @param file               the snapshot file
+   * @param spellCheckSettings settings of the spell checker using this holder
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} if the file can
+   *                             not be mapped or is not a compatible snapshot
+   */
+  public MappedDataHolder(Path file, SpellCheckSettings spellCheckSettings)
+      throws SpellCheckException {
+    this(file, spellCheckSettings, spellCheckSettings.getHashAlgorithm().newHashFunction());
+  }
+
+  /**
+   * Open a snapshot written by {@link #write(PrimitiveDataHolder, Path)}. The settings the deletes
+   * depend on have to match those the snapshot was built with. The max term length and the minimum
+   * bigram count of the snapshot are applied to the settings the same way ingesting the terms
+   * would.
+   *
+   * @param file               the snapshot file
+   * @param spellCheckSettings settings of the spell checker using this holder
+   * @param hashFunction       hash function the snapshot was built with
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} if the file can
+   *                             not be mapped, is not a compatible snapshot or was built with
+   *                             different settings
+   */
+  public MappedDataHolder(Path file, SpellCheckSettings spellCheckSettings,
+      HashFunction hashFunction) throws SpellCheckException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < SnapshotFormat.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+            "Invalid snapshot size " + channel.size() + " of " + file);
+      }
+      this.buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException ex) {
+      throw new SpellCheckException("Unable to map snapshot " + file, ex,
+          SpellCheckExceptionCode.DUMP_ERROR);
+    }
+    if (buffer.getInt(SnapshotFormat.MAGIC_OFFSET) != SnapshotFormat.MAGIC
+        || buffer.getInt(SnapshotFormat.VERSION_OFFSET) != SnapshotFormat.VERSION) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Unsupported snapshot format of " + file);
+    }
+    String snapshotHashFunction = SnapshotFormat
+        .getString(buffer, buffer.getInt(SnapshotFormat.HASH_FUNCTION_OFFSET));
+    if (!snapshotHashFunction.equals(hashFunction.getClass().getName())) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Snapshot was built with " + snapshotHashFunction + " but "
+              + hashFunction.getClass().getName() + " was provided");
+    }
+    if (buffer.getLong(SnapshotFormat.HASH_CHECK_OFFSET) != IndexFormat.hashCheck(hashFunction)) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Snapshot was built with other hash values of " + snapshotHashFunction);
+    }
+    this.hashFunction = hashFunction;
+    IndexFormat.checkSettings(spellCheckSettings,
+        buffer.getDouble(SnapshotFormat.MAX_EDIT_DISTANCE_OFFSET),
+        buffer.getInt(SnapshotFormat.PREFIX_LENGTH_OFFSET),
+        buffer.getDouble(SnapshotFormat.EDIT_FACTOR_OFFSET),
+        buffer.getLong(SnapshotFormat.COUNT_THRESHOLD_OFFSET),
+        buffer.getInt(SnapshotFormat.LOWER_CASE_TERMS_OFFSET) != 0,
+        buffer.getInt(SnapshotFormat.DO_KEY_SPLIT_OFFSET) != 0,
+        SnapshotFormat.getString(buffer, buffer.getInt(SnapshotFormat.KEY_SPLIT_REGEX_OFFSET)));
+
+    termCount = buffer.getInt(SnapshotFormat.TERMS_OFFSET + SnapshotFormat.SECTION_COUNT);
+    termMask = capacity(SnapshotFormat.TERMS_OFFSET) - 1;
+    termTable = buffer.getInt(SnapshotFormat.TERMS_OFFSET + SnapshotFormat.SECTION_TABLE);
+    termEntries = buffer.getInt(SnapshotFormat.TERMS_OFFSET + SnapshotFormat.SECTION_ENTRIES);
+    bigramMask = capacity(SnapshotFormat.BIGRAMS_OFFSET) - 1;
+    bigramTable = buffer.getInt(SnapshotFormat.BIGRAMS_OFFSET + SnapshotFormat.SECTION_TABLE);
+    bigramEntries = buffer
+        .getInt(SnapshotFormat.BIGRAMS_OFFSET + SnapshotFormat.SECTION_ENTRIES);
+    exclusionMask = capacity(SnapshotFormat.EXCLUSIONS_OFFSET) - 1;
+    exclusionTable = buffer
+        .getInt(SnapshotFormat.EXCLUSIONS_OFFSET + SnapshotFormat.SECTION_TABLE);
+    exclusionEntries = buffer
+        .getInt(SnapshotFormat.EXCLUSIONS_OFFSET + SnapshotFormat.SECTION_ENTRIES);
+    deleteMask = capacity(SnapshotFormat.DELETES_OFFSET) - 1;
+    deleteShift = SnapshotFormat.shift(deleteMask + 1);
+    deleteTable = buffer.getInt(SnapshotFormat.DELETES_OFFSET + SnapshotFormat.SECTION_TABLE);
+    postings = buffer.getInt(SnapshotFormat.DELETES_OFFSET + SnapshotFormat.SECTION_ENTRIES);
+
+    int maxLength = buffer.getInt(SnapshotFormat.MAX_LENGTH_OFFSET);
+    spellCheckSettings.raiseMaxLength(maxLength);
+    double bigramCountMin = buffer.getDouble(SnapshotFormat.BIGRAM_COUNT_MIN_OFFSET);
+    spellCheckSettings.lowerBigramCountMin(bigramCountMin);
+  }
+
+  /**
+   * Write the snapshot of the data holder which can be opened by {@link MappedDataHolder}.
+   *
+   * @param dataHolder the built dictionary
+   * @param file       the file to create or replace, holders which mapped it keep reading the
+   *                   previous snapshot
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} if the snapshot
+   *                             can not be written
+   */
+  public static void write(PrimitiveDataHolder dataHolder, Path file)
+      throws SpellCheckException {
+    SnapshotFormat.write(dataHolder, file);
+  }
+
+  private int capacity(int section) {
+    return buffer.getInt(section + SnapshotFormat.SECTION_CAPACITY);
+  }
+
+  /**
+   * Find the entry of the key in one of the string keyed tables.
+   *
+   * @return index of the entry, or -1 if the key is absent
+   */
+  private int find(int table, int mask, int entries, int entrySize, String key) {
+    for (int slot = SnapshotFormat.slot(key, mask); ; slot = (slot + 1) & mask) {
+      int entry = buffer.getInt(table + 4 * slot) - 1;
+      if (entry < 0) {
+        return -1;
+      }
+      if (SnapshotFormat.stringEquals(buffer, buffer.getInt(entries + entry * entrySize), key)) {
+        return entry;
+      }
+    }
+  }
+
+  @Override
+  public boolean addItem(DictionaryItem dictionaryItem) {
+    throw readOnly();
+  }
+
+  @Override
+  public boolean removeItem(DictionaryItem dictionaryItem) {
+    throw readOnly();
+  }
+
+  @Override
+  public Double getItemFrequency(String term) throws SpellCheckException {
+    int entry = find(termTable, termMask, termEntries, SnapshotFormat.FREQUENCY_ENTRY_SIZE, term);
+    if (entry < 0) {
+      return null;
+    }
+    return buffer.getDouble(termEntries + entry * SnapshotFormat.FREQUENCY_ENTRY_SIZE + 4);
+  }
+
+  @Override
+  public Double getItemFrequencyBiGram(String term) throws SpellCheckException {
+    int entry = find(bigramTable, bigramMask, bigramEntries,
+        SnapshotFormat.FREQUENCY_ENTRY_SIZE, term);
+    if (entry < 0) {
+      return null;
+    }
+    return buffer.getDouble(bigramEntries + entry * SnapshotFormat.FREQUENCY_ENTRY_SIZE + 4);
+  }
+
+  @Override
+  public String[] getDeletes(String key) throws SpellCheckException {
+    return getDeletes(key, key.length());
+  }
+
+  @Override
+  public String[] getDeletes(CharSequence key, int length) throws SpellCheckException {
+    int base = findDelete(key, length);
+    if (base < 0) {
+      return null;
+    }
+    String[] suggestions = new String[buffer.getInt(base + 12)];
+    copyPostings(base, suggestions);
+    return suggestions;
+  }
+
+  /**
+   * Copy the suggestions of the delete into the buffer. The terms are stored off heap, so every
+   * suggestion is still decoded into a new String.
+   */
+  @Override
+  public int getDeletes(CharSequence key, int length, String[] suggestions)
+      throws SpellCheckException {
+    int base = findDelete(key, length);
+    if (base < 0) {
+      return 0;
+    }
+    int count = buffer.getInt(base + 12);
+    if (count <= suggestions.length) {
+      copyPostings(base, suggestions);
+    }
+    return count;
+  }
+
+  private int findDelete(CharSequence key, int length) {
+    long hash = hashFunction.hash(key, 0, length);
+    for (int slot = SnapshotFormat.slot(hash, deleteShift); ; slot = (slot + 1) & deleteMask) {
+      int base = deleteTable + slot * SnapshotFormat.DELETE_SLOT_SIZE;
+      if (buffer.getInt(base + 12) == 0) {
+        return -1;
+      }
+      if (buffer.getLong(base) == hash) {
+        return base;
+      }
+    }
+  }
+
+  private void copyPostings(int base, String[] suggestions) {
+    int start = postings + 4 * buffer.getInt(base + 8);
+    int count = buffer.getInt(base + 12);
+    for (int i = 0; i < count; i++) {
+      int termId = buffer.getInt(start + 4 * i);
+      suggestions[i] = SnapshotFormat.getString(buffer,
+          buffer.getInt(termEntries + termId * SnapshotFormat.FREQUENCY_ENTRY_SIZE));
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return termCount;
+  }
+
+  @Override
+  public boolean clear() {
+    throw readOnly();
+  }
+
+  @Override
+  public void load(InputStream in) {
+    throw readOnly();
+  }
+
+  @Override
+  public void addExclusionItem(String key, String value) {
+    throw readOnly();
+  }
+
+  @Override
+  public void addExclusionItems(Map<String, String> values) {
+    throw readOnly();
+  }
+
+  private static UnsupportedOperationException readOnly() {
+    return new UnsupportedOperationException("Mapped dictionary is read only");
+  }
+
+  @Override
+  public String getExclusionItem(String key) {
+    int entry = find(exclusionTable, exclusionMask, exclusionEntries,
+        SnapshotFormat.EXCLUSION_ENTRY_SIZE, key);
+    if (entry < 0) {
+      return null;
+    }
+    return SnapshotFormat.getString(buffer,
+        buffer.getInt(exclusionEntries + entry * SnapshotFormat.EXCLUSION_ENTRY_SIZE + 4));
+  }
+}
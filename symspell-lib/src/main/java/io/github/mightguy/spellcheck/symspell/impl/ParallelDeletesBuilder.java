@@ -0,0 +1,137 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.LongIntArrayMap;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SpellHelper;
+import io.github.mightguy.spellcheck.symspell.common.TermPool;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Generates the deletes of a batch of new terms on a {@link ForkJoinPool} for {@link
+ * PrimitiveDataHolder#addItems}.
+ *
+ * <p>The build runs in two lock free phases. First the terms are split in consecutive chunks and
+ * every chunk task generates the deletes of its terms into one buffer per partition of the
+ * deletes, see {@link PrimitiveDataHolder#partition(long)}. Then every partition task appends the
+ * buffers of its partition, in chunk order, to the map of that partition and freezes it. Each
+ * delete hash belongs to exactly one partition and the chunks are appended in term id order, so
+ * the maps come out the same as those of a sequential build. The hash function is called
+ * concurrently and must be thread safe.
+ */
+final class ParallelDeletesBuilder {
+
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final TermPool terms;
+  private final SpellCheckSettings spellCheckSettings;
+  private final HashFunction hashFunction;
+  private final ForkJoinPool pool;
+
+  ParallelDeletesBuilder(TermPool terms, SpellCheckSettings spellCheckSettings,
+      HashFunction hashFunction, ForkJoinPool pool) {
+    this.terms = terms;
+    this.spellCheckSettings = spellCheckSettings;
+    this.hashFunction = hashFunction;
+    this.pool = pool;
+  }
+
+  /**
+   * Add the deletes of the terms to the partitions of the deletes index, after the postings
+   * already present, and freeze them.
+   *
+   * @param termIds  ids of the new terms, in ascending order
+   * @param count    number of ids used in termIds
+   * @param deletes  the partitions of the deletes index, each only modified by its own task
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#INDEX_ERROR} if a task fails
+   */
+  void build(int[] termIds, int count, LongIntArrayMap[] deletes) throws SpellCheckException {
+    int chunks = Math.max(1, Math.min(count, pool.getParallelism() * CHUNKS_PER_THREAD));
+    List<ForkJoinTask<PostingBuffer[]>> chunkTasks = new ArrayList<>(chunks);
+    for (int chunk = 0; chunk < chunks && count > 0; chunk++) {
+      int from = (int) ((long) count * chunk / chunks);
+      int to = (int) ((long) count * (chunk + 1) / chunks);
+      chunkTasks.add(pool.submit(() -> generate(termIds, from, to, deletes.length)));
+    }
+    List<PostingBuffer[]> buffers = new ArrayList<>(chunks);
+    for (ForkJoinTask<PostingBuffer[]> task : chunkTasks) {
+      buffers.add(join(task));
+    }
+
+    List<ForkJoinTask<Void>> partitionTasks = new ArrayList<>(deletes.length);
+    for (int partition = 0; partition < deletes.length; partition++) {
+      int current = partition;
+      partitionTasks.add(pool.submit(() -> append(buffers, current, deletes[current]), null));
+    }
+    for (ForkJoinTask<Void> task : partitionTasks) {
+      join(task);
+    }
+  }
+
+  private PostingBuffer[] generate(int[] termIds, int from, int to, int partitions) {
+    PostingBuffer[] buffers = new PostingBuffer[partitions];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = new PostingBuffer();
+    }
+    for (int i = from; i < to; i++) {
+      String key = terms.get(termIds[i]);
+      for (String delete : SpellHelper.getEditDeletes(key,
+          spellCheckSettings.getMaxEditDistance(), spellCheckSettings.getPrefixLength(),
+          spellCheckSettings.getEditFactor())) {
+        long hash = hashFunction.hash(delete, 0, delete.length());
+        buffers[PrimitiveDataHolder.partition(hash)].add(hash, termIds[i]);
+      }
+    }
+    return buffers;
+  }
+
+  private static void append(List<PostingBuffer[]> buffers, int partition,
+      LongIntArrayMap deletes) {
+    for (PostingBuffer[] chunk : buffers) {
+      PostingBuffer buffer = chunk[partition];
+      for (int i = 0; i < buffer.size; i++) {
+        deletes.add(buffer.keys[i], buffer.termIds[i]);
+      }
+    }
+    deletes.freeze();
+  }
+
+  private static <T> T join(ForkJoinTask<T> task) throws SpellCheckException {
+    try {
+      return task.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new SpellCheckException("Interrupted while building the deletes", ex,
+          SpellCheckExceptionCode.INDEX_ERROR);
+    } catch (ExecutionException ex) {
+      throw new SpellCheckException("Unable to build the deletes", ex.getCause(),
+          SpellCheckExceptionCode.INDEX_ERROR);
+    }
+  }
+
+  /**
+   * Growable list of (delete hash, term id) pairs.
+   */
+  private static final class PostingBuffer {
+
+    private long[] keys = new long[64];
+    private int[] termIds = new int[64];
+    private int size;
+
+    private void add(long key, int termId) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size << 1);
+        termIds = Arrays.copyOf(termIds, size << 1);
+      }
+      keys[size] = key;
+      termIds[size++] = termId;
+    }
+  }
+}
@@ -0,0 +1,465 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.LongIntArrayMap;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SpellHelper;
+import io.github.mightguy.spellcheck.symspell.common.TermPool;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap compact variant of {@link InMemoryDataHolder}. Dictionary words are interned in a {@link
+ * TermPool} and the deletes are kept in primitive {@link LongIntArrayMap}s from the delete hash to
+ * the ids of the words it was derived from, so the index holds no boxed keys, map entries or
+ * per-delete reference arrays. The deletes are split into {@link #DELETE_PARTITIONS} maps by the
+ * low bits of the hash, which {@link #addItems(Collection, ForkJoinPool)} fills in parallel.
+ */
+public class PrimitiveDataHolder implements DataHolder {
+
+  /**
+   * Number of maps the deletes are split into, a power of two.
+   */
+  static final int DELETE_PARTITIONS = 64;
+
+  /**
+   * Dictionary of unique correct spelling words, the frequency of a word is stored at its term id.
+   */
+  private TermPool terms = new TermPool();
+  private double[] frequencies = new double[16];
+
+  private Map<String, Double> bigramsDictionary = new HashMap<>();
+  private Map<String, String> exclusionDictionary = new HashMap<>();
+
+  /**
+   * Dictionary of unique words that are  below the count threshold for being considered correct
+   * spellings.
+   */
+  private Map<String, Double> belowThresholdWords = new HashMap<>();
+
+  /**
+   * Mapping of the hash of the original words and the deletes derived from them to the term ids of
+   * the original words. Collisions of hashCodes is tolerated, because suggestions are ultimately
+   * verified via an edit distance function.
+   */
+  private LongIntArrayMap[] deletes = newDeletes(0);
+
+  /**
+   * Spell check settings to use the values while ingesting the terms.
+   */
+  private SpellCheckSettings spellCheckSettings;
+
+  private HashFunction hashFunction;
+
+  /**
+   * Incremented by every modification of the dictionary, see {@link
+   * DataHolder#getModificationCount()}.
+   */
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  /**
+   * Create the data holder with the hash function selected by {@link
+   * SpellCheckSettings#getHashAlgorithm()}.
+   *
+   * @param spellCheckSettings settings used while ingesting the terms
+   */
+  public PrimitiveDataHolder(SpellCheckSettings spellCheckSettings) {
+    this(spellCheckSettings, spellCheckSettings.getHashAlgorithm().newHashFunction());
+  }
+
+  public PrimitiveDataHolder(
+      SpellCheckSettings spellCheckSettings,
+      HashFunction hashFunction) {
+    this.spellCheckSettings = spellCheckSettings;
+    this.hashFunction = hashFunction;
+  }
+
+  /**
+   * Create/Update an entry in the dictionary, follows the same rules as {@link
+   * InMemoryDataHolder#addItem(DictionaryItem)}.
+   *
+   * @param dictionaryItem {@link DictionaryItem}
+   * @return True if the word was added as a new correctly spelled word, or False if the word is
+   * added as a below threshold word, or updates an existing correctly spelled word.
+   */
+  @Override
+  public boolean addItem(final DictionaryItem dictionaryItem) throws SpellCheckException {
+    modificationCount.incrementAndGet();
+    int termId = indexItem(dictionaryItem);
+    if (termId < 0) {
+      return false;
+    }
+    Set<String> editDeletes = SpellHelper
+        .getEditDeletes(terms.get(termId), spellCheckSettings.getMaxEditDistance(),
+            spellCheckSettings.getPrefixLength(), spellCheckSettings.getEditFactor());
+    for (String delete : editDeletes) {
+      long hash = hash(delete, delete.length());
+      deletes[partition(hash)].add(hash, termId);
+    }
+    return true;
+  }
+
+  /**
+   * Bulk variant of {@link #addItem(DictionaryItem)} which generates the deletes on the common
+   * {@link ForkJoinPool}, see {@link #addItems(Collection, ForkJoinPool)}.
+   *
+   * @param dictionaryItems the items to add, in order
+   * @return number of items added as new correctly spelled words
+   */
+  @Override
+  public int addItems(Collection<DictionaryItem> dictionaryItems) throws SpellCheckException {
+    return addItems(dictionaryItems, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Bulk variant of {@link #addItem(DictionaryItem)}. The frequencies, thresholds and bigrams are
+   * applied in order like consecutive addItem calls, then the deletes of all new words are
+   * generated in parallel on the pool and appended to the partitions of the deletes without locks.
+   * The resulting index is identical to the one built by adding the items one by one, and is
+   * left frozen.
+   *
+   * @param dictionaryItems the items to add, in order
+   * @param pool            pool to generate the deletes on
+   * @return number of items added as new correctly spelled words
+   */
+  public int addItems(Collection<DictionaryItem> dictionaryItems, ForkJoinPool pool)
+      throws SpellCheckException {
+    modificationCount.incrementAndGet();
+    int[] termIds = new int[dictionaryItems.size()];
+    int count = 0;
+    for (DictionaryItem dictionaryItem : dictionaryItems) {
+      int termId = indexItem(dictionaryItem);
+      if (termId >= 0) {
+        termIds[count++] = termId;
+      }
+    }
+    new ParallelDeletesBuilder(terms, spellCheckSettings, hashFunction, pool)
+        .build(termIds, count, deletes);
+    return count;
+  }
+
+  /**
+   * Apply the frequency of the item to the dictionary.
+   *
+   * @return the term id if the item was added as a new correctly spelled word, else -1
+   */
+  private int indexItem(DictionaryItem dictionaryItem) {
+    if (dictionaryItem.getFrequency() <= 0 && spellCheckSettings.getCountThreshold() > 0) {
+      return -1;
+    }
+
+    double frequency = dictionaryItem.getFrequency();
+    String key = dictionaryItem.getTerm();
+    if (spellCheckSettings.isLowerCaseTerms()) {
+      key = key.toLowerCase();
+    }
+    if (frequency <= 0) {
+      frequency = 0;
+    }
+
+    frequency = addItemToBelowThreshold(key, frequency);
+
+    if (frequency == Double.MIN_VALUE) {
+      return -1;
+    }
+
+    if (!isWord(key)) {
+      addBigram(key, frequency);
+      return -1;
+    }
+    int termId = addWord(key, frequency);
+
+    spellCheckSettings.raiseMaxLength(key.length());
+    return termId;
+  }
+
+  private boolean isWord(String key) {
+    return !spellCheckSettings.isDoKeySplit()
+        || key.split(spellCheckSettings.getKeySplitRegex()).length <= 1;
+  }
+
+  private void addBigram(String key, double frequency) {
+    bigramsDictionary.put(key, frequency);
+    spellCheckSettings.lowerBigramCountMin(frequency);
+  }
+
+  private int addWord(String key, double frequency) {
+    int termId = terms.add(key);
+    if (termId >= frequencies.length) {
+      frequencies = Arrays.copyOf(frequencies, frequencies.length << 1);
+    }
+    frequencies[termId] = frequency;
+    return termId;
+  }
+
+  private long hash(CharSequence key, int length) {
+    return hashFunction.hash(key, 0, length);
+  }
+
+  /**
+   * The partition of the deletes a hash belongs to. Taken from the low bits, as the maps place
+   * the keys by the high bits of the mixed hash.
+   */
+  static int partition(long hash) {
+    return (int) (hash ^ (hash >>> 32)) & (DELETE_PARTITIONS - 1);
+  }
+
+  private static LongIntArrayMap[] newDeletes(int expectedSize) {
+    LongIntArrayMap[] partitions = new LongIntArrayMap[DELETE_PARTITIONS];
+    for (int i = 0; i < partitions.length; i++) {
+      partitions[i] = new LongIntArrayMap(expectedSize / DELETE_PARTITIONS);
+    }
+    return partitions;
+  }
+
+  @Override
+  public Double getItemFrequency(String term) throws SpellCheckException {
+    int termId = terms.indexOf(term);
+    if (termId < 0) {
+      return null;
+    }
+    return frequencies[termId];
+  }
+
+  @Override
+  public Double getItemFrequencyBiGram(String term) throws SpellCheckException {
+    return bigramsDictionary.getOrDefault(term, null);
+  }
+
+  @Override
+  public String[] getDeletes(String key) {
+    return getDeletes(key, key.length());
+  }
+
+  @Override
+  public String[] getDeletes(CharSequence key, int length) {
+    long hash = hash(key, length);
+    LongIntArrayMap partition = deletes[partition(hash)];
+    int slot = partition.find(hash);
+    if (slot < 0) {
+      return null;
+    }
+    int[] termIds = partition.arrayAt(slot);
+    int offset = partition.offsetAt(slot);
+    String[] suggestions = new String[partition.lengthAt(slot)];
+    for (int i = 0; i < suggestions.length; i++) {
+      suggestions[i] = terms.get(termIds[offset + i]);
+    }
+    return suggestions;
+  }
+
+  @Override
+  public int getDeletes(CharSequence key, int length, String[] buffer) {
+    long hash = hash(key, length);
+    LongIntArrayMap partition = deletes[partition(hash)];
+    int slot = partition.find(hash);
+    if (slot < 0) {
+      return 0;
+    }
+    int count = partition.lengthAt(slot);
+    if (count <= buffer.length) {
+      int[] termIds = partition.arrayAt(slot);
+      int offset = partition.offsetAt(slot);
+      for (int i = 0; i < count; i++) {
+        buffer[i] = terms.get(termIds[offset + i]);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Compact the postings of the deletes, which grow with spare capacity while words are added,
+   * into a single exact sized array. Words can still be added afterwards, at the cost of
+   * expanding the postings again, so call it once the dictionary is loaded.
+   */
+  @Override
+  public void freeze() {
+    for (LongIntArrayMap partition : deletes) {
+      partition.freeze();
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return terms.size();
+  }
+
+  @Override
+  public boolean clear() {
+    modificationCount.incrementAndGet();
+    terms.clear();
+    frequencies = new double[16];
+    deletes = newDeletes(0);
+    belowThresholdWords.clear();
+    return false;
+  }
+
+  private double addItemToBelowThreshold(String key, double frequency) {
+    int termId = terms.indexOf(key);
+    if (spellCheckSettings.getCountThreshold() > 1 && belowThresholdWords.containsKey(key)) {
+      double prevFreq = belowThresholdWords.get(key);
+      frequency =
+          prevFreq + (Double.MAX_VALUE - prevFreq > frequency ? frequency : Double.MAX_VALUE);
+      if (frequency >= spellCheckSettings.getCountThreshold()) {
+        belowThresholdWords.remove(key);
+      } else {
+        belowThresholdWords.put(key, frequency);
+        return Double.MIN_VALUE;
+      }
+    } else if (termId >= 0) {
+      double prevFreq = frequencies[termId];
+      frequency =
+          prevFreq + (Double.MAX_VALUE - prevFreq > frequency ? frequency : Double.MAX_VALUE);
+      addWord(key, frequency);
+      return Double.MIN_VALUE;
+    } else if (frequency < spellCheckSettings.getCountThreshold()) {
+      belowThresholdWords.put(key, frequency);
+      return Double.MIN_VALUE;
+    }
+    return frequency;
+  }
+
+  @Override
+  public void save(OutputStream outputStream) throws SpellCheckException {
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+      IndexFormat.writeHeader(out, spellCheckSettings, hashFunction);
+      out.writeInt(terms.size());
+      for (int termId = 0; termId < terms.size(); termId++) {
+        IndexFormat.writeString(out, terms.get(termId));
+        out.writeDouble(frequencies[termId]);
+      }
+      IndexFormat.writeFrequencies(out, belowThresholdWords);
+      IndexFormat.writeFrequencies(out, bigramsDictionary);
+      IndexFormat.writeExclusions(out, exclusionDictionary);
+      out.writeInt(getDeleteCount());
+      for (LongIntArrayMap partition : deletes) {
+        for (int slot = 0; slot < partition.capacity(); slot++) {
+          int length = partition.lengthAt(slot);
+          if (length != 0) {
+            int[] termIds = partition.arrayAt(slot);
+            int offset = partition.offsetAt(slot);
+            out.writeLong(partition.keyAt(slot));
+            out.writeInt(length);
+            for (int i = offset; i < offset + length; i++) {
+              out.writeInt(termIds[i]);
+            }
+          }
+        }
+      }
+      out.flush();
+    } catch (IOException ex) {
+      throw new SpellCheckException("Unable to save the index", ex,
+          SpellCheckExceptionCode.DUMP_ERROR);
+    }
+  }
+
+  @Override
+  public void load(InputStream inputStream) throws SpellCheckException {
+    clear();
+    bigramsDictionary.clear();
+    exclusionDictionary.clear();
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+      IndexFormat.readHeader(in, spellCheckSettings, hashFunction);
+      int termCount = in.readInt();
+      frequencies = new double[Math.max(16, termCount)];
+      for (int termId = 0; termId < termCount; termId++) {
+        terms.add(IndexFormat.readString(in));
+        frequencies[termId] = in.readDouble();
+      }
+      IndexFormat.readFrequencies(in, belowThresholdWords);
+      IndexFormat.readFrequencies(in, bigramsDictionary);
+      IndexFormat.readExclusions(in, exclusionDictionary);
+      int deleteCount = in.readInt();
+      deletes = newDeletes(deleteCount);
+      for (int i = 0; i < deleteCount; i++) {
+        long hash = in.readLong();
+        int[] termIds = new int[in.readInt()];
+        for (int j = 0; j < termIds.length; j++) {
+          termIds[j] = in.readInt();
+        }
+        deletes[partition(hash)].put(hash, termIds);
+      }
+      freeze();
+    } catch (IOException | RuntimeException ex) {
+      clear();
+      throw new SpellCheckException("Unable to load the index", ex,
+          SpellCheckExceptionCode.DUMP_ERROR);
+    }
+  }
+
+  TermPool getTerms() {
+    return terms;
+  }
+
+  double getFrequency(int termId) {
+    return frequencies[termId];
+  }
+
+  LongIntArrayMap[] getDeletesIndex() {
+    return deletes;
+  }
+
+  int getDeleteCount() {
+    int count = 0;
+    for (LongIntArrayMap partition : deletes) {
+      count += partition.size();
+    }
+    return count;
+  }
+
+  Map<String, Double> getBigrams() {
+    return bigramsDictionary;
+  }
+
+  Map<String, String> getExclusions() {
+    return exclusionDictionary;
+  }
+
+  HashFunction getHashFunction() {
+    return hashFunction;
+  }
+
+  SpellCheckSettings getSpellCheckSettings() {
+    return spellCheckSettings;
+  }
+
+  @Override
+  public void addExclusionItem(String key, String value) {
+    modificationCount.incrementAndGet();
+    exclusionDictionary.put(key, value);
+  }
+
+  @Override
+  public void addExclusionItems(Map<String, String> values) {
+    modificationCount.incrementAndGet();
+    exclusionDictionary.putAll(values);
+  }
+
+  @Override
+  public String getExclusionItem(String key) {
+    return exclusionDictionary.getOrDefault(key, null);
+  }
+
+  @Override
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded segmented LRU cache. New entries enter a probation segment and are promoted to the
+ * protected segment when they are hit again, so a burst of keys seen once cannot evict the keys
+ * that are requested over and over. Entries demoted from the protected segment get another
+ * chance in probation before being evicted.
+ *
+ * <p>The keys are striped over independent caches by their hash, each with its share of the
+ * capacity and its own lock, so concurrent lookups only contend when their keys share a stripe.
+ * Caches of fewer than {@link #ENTRIES_PER_STRIPE} entries per stripe use a single stripe.
+ */
+final class SegmentedLruCache<K, V> {
+
+  private static final int MAX_STRIPES = 16;
+  private static final int ENTRIES_PER_STRIPE = 64;
+
+  private final Stripe<K, V>[] stripes;
+
+  /**
+   * Constructor for SegmentedLruCache
+   *
+   * @param capacity max number of entries, 80% of them are reserved for the entries hit more than
+   *                 once
+   */
+  @SuppressWarnings("unchecked")
+  SegmentedLruCache(int capacity) {
+    capacity = Math.max(1, capacity);
+    int stripeCount = Integer.highestOneBit(
+        Math.max(1, Math.min(MAX_STRIPES, capacity / ENTRIES_PER_STRIPE)));
+    stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe<>(capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0));
+    }
+  }
+
+  V get(K key) {
+    return stripe(key).get(key);
+  }
+
+  void put(K key, V value) {
+    stripe(key).put(key, value);
+  }
+
+  /**
+   * Remove the entry of the key if it still maps to the value.
+   */
+  void remove(K key, V value) {
+    stripe(key).remove(key, value);
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe<K, V> stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  void clear() {
+    for (Stripe<K, V> stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  private Stripe<K, V> stripe(K key) {
+    int hash = key.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  /**
+   * The probation and protected segments of one stripe, all methods are synchronized.
+   */
+  private static final class Stripe<K, V> {
+
+    private final int protectedCapacity;
+    private final int capacity;
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    Stripe(int capacity) {
+      this.capacity = Math.max(1, capacity);
+      this.protectedCapacity = (int) (this.capacity * 0.8);
+    }
+
+    synchronized V get(K key) {
+      V value = protectedSegment.get(key);
+      if (value != null) {
+        return value;
+      }
+      value = probation.remove(key);
+      if (value == null) {
+        return null;
+      }
+      if (protectedCapacity == 0) {
+        probation.put(key, value);
+        return value;
+      }
+      if (protectedSegment.size() >= protectedCapacity) {
+        Iterator<Map.Entry<K, V>> eldest = protectedSegment.entrySet().iterator();
+        Map.Entry<K, V> demoted = eldest.next();
+        eldest.remove();
+        probation.put(demoted.getKey(), demoted.getValue());
+      }
+      protectedSegment.put(key, value);
+      return value;
+    }
+
+    synchronized void put(K key, V value) {
+      if (protectedSegment.containsKey(key)) {
+        protectedSegment.put(key, value);
+        return;
+      }
+      probation.put(key, value);
+      while (probation.size() + protectedSegment.size() > capacity) {
+        Iterator<K> eldest = probation.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+
+    synchronized void remove(K key, V value) {
+      if (!protectedSegment.remove(key, value)) {
+        probation.remove(key, value);
+      }
+    }
+
+    synchronized int size() {
+      return probation.size() + protectedSegment.size();
+    }
+
+    synchronized void clear() {
+      probation.clear();
+      protectedSegment.clear();
+    }
+  }
+}
@@ -0,0 +1,311 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.common.LongIntArrayMap;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.TermPool;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary layout of a dictionary snapshot, shared by the writer and {@link MappedDataHolder}.
+ *
+ * <p>The file is a fixed header followed by the sections below, all offsets are absolute byte
+ * offsets into the file and every value is big endian.
+ * <pre>
+ * header      magic, version, hash function name and check value, the settings used to build
+ *             the snapshot and the section table
+ * terms       open addressing table of (entry + 1) and entries of (string offset, frequency)
+ * bigrams     same layout as terms
+ * exclusions  open addressing table of (entry + 1) and entries of (key offset, value offset)
+ * deletes     open addressing table of (delete hash, postings start, postings length)
+ * postings    term ids of the deletes, referenced by the deletes table
+ * strings     length prefixed UTF-16 chars
+ * </pre>
+ */
+final class SnapshotFormat {
+
+  static final int MAGIC = 0x53594d53;
+  static final int VERSION = 4;
+
+  static final int MAGIC_OFFSET = 0;
+  static final int VERSION_OFFSET = 4;
+  static final int HASH_FUNCTION_OFFSET = 8;
+  static final int MAX_LENGTH_OFFSET = 12;
+  static final int BIGRAM_COUNT_MIN_OFFSET = 16;
+  static final int MAX_EDIT_DISTANCE_OFFSET = 24;
+  static final int PREFIX_LENGTH_OFFSET = 32;
+  static final int EDIT_FACTOR_OFFSET = 36;
+  static final int COUNT_THRESHOLD_OFFSET = 44;
+  static final int LOWER_CASE_TERMS_OFFSET = 52;
+  static final int DO_KEY_SPLIT_OFFSET = 56;
+  static final int KEY_SPLIT_REGEX_OFFSET = 60;
+  static final int HASH_CHECK_OFFSET = 64;
+  static final int TERMS_OFFSET = 72;
+  static final int BIGRAMS_OFFSET = 88;
+  static final int EXCLUSIONS_OFFSET = 104;
+  static final int DELETES_OFFSET = 120;
+  static final int STRINGS_OFFSET = 136;
+  static final int HEADER_SIZE = 140;
+
+  /**
+   * Every section header is (count, table capacity, table offset, entries offset).
+   */
+  static final int SECTION_COUNT = 0;
+  static final int SECTION_CAPACITY = 4;
+  static final int SECTION_TABLE = 8;
+  static final int SECTION_ENTRIES = 12;
+
+  static final int FREQUENCY_ENTRY_SIZE = 12;
+  static final int EXCLUSION_ENTRY_SIZE = 8;
+  static final int DELETE_SLOT_SIZE = 16;
+
+  private static final long PHI = 0x9E3779B97F4A7C15L;
+
+  private final ByteBuffer buffer;
+  private int stringCursor;
+
+  private SnapshotFormat(ByteBuffer buffer, int stringsOffset) {
+    this.buffer = buffer;
+    this.stringCursor = stringsOffset;
+  }
+
+  /**
+   * Write the dictionary, bigrams, exclusions and deletes of the data holder to the file. The
+   * snapshot is written to a temporary file next to it and moved over the file once complete, so
+   * processes which mapped the previous snapshot keep reading it unchanged.
+   *
+   * @param dataHolder the source dictionary
+   * @param file       the file to create or replace
+   * @throws SpellCheckException with {@link SpellCheckExceptionCode#DUMP_ERROR} if the snapshot
+   *                             can not be written
+   */
+  static void write(PrimitiveDataHolder dataHolder, Path file) throws SpellCheckException {
+    TermPool terms = dataHolder.getTerms();
+    LongIntArrayMap[] deletes = dataHolder.getDeletesIndex();
+    List<Map.Entry<String, Double>> bigrams = new ArrayList<>(
+        dataHolder.getBigrams().entrySet());
+    List<Map.Entry<String, String>> exclusions = new ArrayList<>(
+        dataHolder.getExclusions().entrySet());
+    String hashFunctionName = dataHolder.getHashFunction().getClass().getName();
+    SpellCheckSettings spellCheckSettings = dataHolder.getSpellCheckSettings();
+
+    int termCapacity = tableCapacity(terms.size());
+    int bigramCapacity = tableCapacity(bigrams.size());
+    int exclusionCapacity = tableCapacity(exclusions.size());
+    int deleteCount = dataHolder.getDeleteCount();
+    int deleteCapacity = tableCapacity(deleteCount);
+    long postingCount = 0;
+    for (LongIntArrayMap partition : deletes) {
+      for (int slot = 0; slot < partition.capacity(); slot++) {
+        postingCount += partition.lengthAt(slot);
+      }
+    }
+    long stringBytes = stringSize(hashFunctionName)
+        + stringSize(spellCheckSettings.getKeySplitRegex());
+    for (int termId = 0; termId < terms.size(); termId++) {
+      stringBytes += stringSize(terms.get(termId));
+    }
+    for (Map.Entry<String, Double> bigram : bigrams) {
+      stringBytes += stringSize(bigram.getKey());
+    }
+    for (Map.Entry<String, String> exclusion : exclusions) {
+      stringBytes += stringSize(exclusion.getKey()) + stringSize(exclusion.getValue());
+    }
+
+    long termTable = HEADER_SIZE;
+    long termEntries = termTable + 4L * termCapacity;
+    long bigramTable = termEntries + (long) FREQUENCY_ENTRY_SIZE * terms.size();
+    long bigramEntries = bigramTable + 4L * bigramCapacity;
+    long exclusionTable = bigramEntries + (long) FREQUENCY_ENTRY_SIZE * bigrams.size();
+    long exclusionEntries = exclusionTable + 4L * exclusionCapacity;
+    long deleteTable = exclusionEntries + (long) EXCLUSION_ENTRY_SIZE * exclusions.size();
+    long postings = deleteTable + (long) DELETE_SLOT_SIZE * deleteCapacity;
+    long strings = postings + 4L * postingCount;
+    long size = strings + stringBytes;
+    if (size > Integer.MAX_VALUE) {
+      throw new SpellCheckException(SpellCheckExceptionCode.DUMP_ERROR,
+          "Snapshot of " + size + " bytes exceeds the 2GB limit of a single mapping");
+    }
+
+    Path tmpFile = null;
+    try {
+      Path directory = file.toAbsolutePath().getParent();
+      tmpFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        // a new file reads as zeros until written, so the tables start out empty
+        MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+        SnapshotFormat writer = new SnapshotFormat(buffer, (int) strings);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(HASH_FUNCTION_OFFSET, writer.putString(hashFunctionName));
+        buffer.putLong(HASH_CHECK_OFFSET, IndexFormat.hashCheck(dataHolder.getHashFunction()));
+        buffer.putInt(MAX_LENGTH_OFFSET, spellCheckSettings.getMaxLength());
+        buffer.putDouble(BIGRAM_COUNT_MIN_OFFSET, spellCheckSettings.getBigramCountMin());
+        buffer.putDouble(MAX_EDIT_DISTANCE_OFFSET, spellCheckSettings.getMaxEditDistance());
+        buffer.putInt(PREFIX_LENGTH_OFFSET, spellCheckSettings.getPrefixLength());
+        buffer.putDouble(EDIT_FACTOR_OFFSET, spellCheckSettings.getEditFactor());
+        buffer.putLong(COUNT_THRESHOLD_OFFSET, spellCheckSettings.getCountThreshold());
+        buffer.putInt(LOWER_CASE_TERMS_OFFSET, spellCheckSettings.isLowerCaseTerms() ? 1 : 0);
+        buffer.putInt(DO_KEY_SPLIT_OFFSET, spellCheckSettings.isDoKeySplit() ? 1 : 0);
+        buffer.putInt(KEY_SPLIT_REGEX_OFFSET,
+            writer.putString(spellCheckSettings.getKeySplitRegex()));
+        writer.putSection(TERMS_OFFSET, terms.size(), termCapacity, termTable, termEntries);
+        writer.putSection(BIGRAMS_OFFSET, bigrams.size(), bigramCapacity, bigramTable,
+            bigramEntries);
+        writer.putSection(EXCLUSIONS_OFFSET, exclusions.size(), exclusionCapacity, exclusionTable,
+            exclusionEntries);
+        writer.putSection(DELETES_OFFSET, deleteCount, deleteCapacity, deleteTable, postings);
+        buffer.putInt(STRINGS_OFFSET, (int) strings);
+
+        for (int termId = 0; termId < terms.size(); termId++) {
+          int entry = (int) termEntries + termId * FREQUENCY_ENTRY_SIZE;
+          buffer.putInt(entry, writer.putString(terms.get(termId)));
+          buffer.putDouble(entry + 4, dataHolder.getFrequency(termId));
+          writer.putTableSlot((int) termTable, termCapacity, terms.get(termId), termId);
+        }
+        for (int i = 0; i < bigrams.size(); i++) {
+          int entry = (int) bigramEntries + i * FREQUENCY_ENTRY_SIZE;
+          buffer.putInt(entry, writer.putString(bigrams.get(i).getKey()));
+          buffer.putDouble(entry + 4, bigrams.get(i).getValue());
+          writer.putTableSlot((int) bigramTable, bigramCapacity, bigrams.get(i).getKey(), i);
+        }
+        for (int i = 0; i < exclusions.size(); i++) {
+          int entry = (int) exclusionEntries + i * EXCLUSION_ENTRY_SIZE;
+          buffer.putInt(entry, writer.putString(exclusions.get(i).getKey()));
+          buffer.putInt(entry + 4, writer.putString(exclusions.get(i).getValue()));
+          writer.putTableSlot((int) exclusionTable, exclusionCapacity,
+              exclusions.get(i).getKey(), i);
+        }
+        writer.putDeletes(deletes, (int) deleteTable, deleteCapacity, (int) postings);
+        buffer.force();
+      }
+      Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ex) {
+      throw new SpellCheckException("Unable to write snapshot " + file, ex,
+          SpellCheckExceptionCode.DUMP_ERROR);
+    } finally {
+      deleteQuietly(tmpFile);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ex) {
+      // only a leftover temporary file, the snapshot itself is unaffected
+    }
+  }
+
+  private void putSection(int header, int count, int capacity, long table, long entries) {
+    buffer.putInt(header + SECTION_COUNT, count);
+    buffer.putInt(header + SECTION_CAPACITY, capacity);
+    buffer.putInt(header + SECTION_TABLE, (int) table);
+    buffer.putInt(header + SECTION_ENTRIES, (int) entries);
+  }
+
+  private void putTableSlot(int table, int capacity, String key, int entry) {
+    int mask = capacity - 1;
+    int slot = slot(key, mask);
+    while (buffer.getInt(table + 4 * slot) != 0) {
+      slot = (slot + 1) & mask;
+    }
+    buffer.putInt(table + 4 * slot, entry + 1);
+  }
+
+  private void putDeletes(LongIntArrayMap[] deletes, int table, int capacity, int postings) {
+    int shift = shift(capacity);
+    int mask = capacity - 1;
+    int cursor = postings;
+    for (LongIntArrayMap partition : deletes) {
+      for (int i = 0; i < partition.capacity(); i++) {
+        int length = partition.lengthAt(i);
+        if (length == 0) {
+          continue;
+        }
+        int[] termIds = partition.arrayAt(i);
+        int offset = partition.offsetAt(i);
+        long key = partition.keyAt(i);
+        int slot = slot(key, shift);
+        while (buffer.getInt(table + slot * DELETE_SLOT_SIZE + 12) != 0) {
+          slot = (slot + 1) & mask;
+        }
+        int base = table + slot * DELETE_SLOT_SIZE;
+        buffer.putLong(base, key);
+        buffer.putInt(base + 8, (cursor - postings) >>> 2);
+        buffer.putInt(base + 12, length);
+        for (int j = offset; j < offset + length; j++) {
+          buffer.putInt(cursor, termIds[j]);
+          cursor += 4;
+        }
+      }
+    }
+  }
+
+  private int putString(String value) {
+    int offset = stringCursor;
+    buffer.putInt(offset, value.length());
+    for (int i = 0; i < value.length(); i++) {
+      buffer.putChar(offset + 4 + 2 * i, value.charAt(i));
+    }
+    stringCursor += stringSize(value);
+    return offset;
+  }
+
+  private static int stringSize(String value) {
+    return 4 + 2 * value.length();
+  }
+
+  static String getString(ByteBuffer buffer, int offset) {
+    char[] chars = new char[buffer.getInt(offset)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = buffer.getChar(offset + 4 + 2 * i);
+    }
+    return new String(chars);
+  }
+
+  static boolean stringEquals(ByteBuffer buffer, int offset, String value) {
+    if (buffer.getInt(offset) != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (buffer.getChar(offset + 4 + 2 * i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static int tableCapacity(int count) {
+    return Integer.highestOneBit(Math.max(1, count * 2 - 1)) << 1;
+  }
+
+  static int slot(String key, int mask) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  static int slot(long key, int shift) {
+    return (int) ((key * PHI) >>> shift);
+  }
+
+  static int shift(int capacity) {
+    return Long.numberOfLeadingZeros(capacity - 1L);
+  }
+}
@@ -5,22 +5,31 @@ import io.github.mightguy.spellcheck.symspell.api.DataHolder;
 import io.github.mightguy.spellcheck.symspell.api.SpellChecker;
 import io.github.mightguy.spellcheck.symspell.api.StringDistance;
 import io.github.mightguy.spellcheck.symspell.common.Composition;
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+import io.github.mightguy.spellcheck.symspell.common.LookupResult;
 import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
 import io.github.mightguy.spellcheck.symspell.common.SpellHelper;
 import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
 import io.github.mightguy.spellcheck.symspell.common.Verbosity;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 /**
- * Symspell variant of the Spellchecker
+ * Symspell variant of the Spellchecker. Lookups may run concurrently from several threads once
+ * the dictionary is loaded.
  */
 public class SymSpellCheck extends SpellChecker {
 
@@ -28,6 +37,38 @@ public class SymSpellCheck extends SpellChecker {
   // but not if the dictionary is truncated or filtered
   private static Long nMax = 1024908267229L;
 
+  /**
+   * Start positions of a phrase whose parts are looked up together by a parallel word
+   * segmentation, before the compositions are updated with them.
+   */
+  private static final int SEGMENTATION_BLOCK_SIZE = 1024;
+
+  /**
+   * Suggestions read from the deletes index which only matched the candidate through a hash
+   * collision, and the edit distances computed, across all lookups.
+   */
+  private final LongAdder collisionRejections = new LongAdder();
+  private final LongAdder distanceComputations = new LongAdder();
+
+  /**
+   * Terms looked up by compound lookups, for the terms themselves, their splits and combinations,
+   * and how many of them were served by an earlier lookup of the same call.
+   */
+  private final LongAdder termLookups = new LongAdder();
+  private final LongAdder termLookupReuses = new LongAdder();
+
+  /**
+   * Parts of word segmentations which were not looked up, because no term starts with them.
+   */
+  private final LongAdder skippedSegmentLookups = new LongAdder();
+
+  /**
+   * Candidate queue and considered sets of {@link #lookup}, reused across the lookups of a
+   * thread.
+   */
+  private final ThreadLocal<LookupContext> lookupContext =
+      ThreadLocal.withInitial(LookupContext::new);
+
   public SymSpellCheck(DataHolder dataHolder,
       StringDistance stringDistance,
       SpellCheckSettings spellCheckSettings) {
@@ -51,6 +92,25 @@ public class SymSpellCheck extends SpellChecker {
   public List<SuggestionItem> lookupCompound(String phrase, double maxEditDistance,
       boolean tokenizeOnWhiteSpace)
       throws SpellCheckException {
+    return lookupCompound(phrase, maxEditDistance, tokenizeOnWhiteSpace, (Deadline) null);
+  }
+
+  /**
+   * Compound lookup which stops looking up, splitting and combining terms when the time budget of
+   * the options expires. Terms not corrected by then are kept as they are, or replaced by the best
+   * suggestion found for them so far.
+   */
+  @Override
+  public LookupResult lookupCompound(String phrase, double maxEditDistance,
+      boolean tokenizeOnWhiteSpace, LookupOptions lookupOptions) throws SpellCheckException {
+    Deadline deadline = Deadline.start(lookupOptions);
+    List<SuggestionItem> suggestions = lookupCompound(phrase, maxEditDistance,
+        tokenizeOnWhiteSpace, deadline);
+    return new LookupResult(suggestions, Deadline.isTruncated(deadline));
+  }
+
+  private List<SuggestionItem> lookupCompound(String phrase, double maxEditDistance,
+      boolean tokenizeOnWhiteSpace, Deadline deadline) throws SpellCheckException {
 
     if (maxEditDistance > spellCheckSettings.getMaxEditDistance()) {
       throw new SpellCheckException(SpellCheckExceptionCode.LOOKUP_ERROR,
@@ -70,8 +130,11 @@ public class SymSpellCheck extends SpellChecker {
     } else {
       items = new String[]{phrase};
     }
+    // the whole compound lookup reads the same dictionary, even if it is swapped meanwhile
+    DataHolder dataHolder = this.dataHolder;
     List<SuggestionItem> suggestions = new ArrayList<>();
     List<SuggestionItem> suggestionParts = new ArrayList<>();
+    Map<String, SuggestionItem[]> termSuggestions = new HashMap<>();
     boolean isLastCombi = false;
 
     /*
@@ -83,28 +146,8 @@ public class SymSpellCheck extends SpellChecker {
     }
 
     for (int i = 0; i < items.length; i++) {
-      //Normal suggestions
-      suggestions = lookup(items[i], Verbosity.TOP, maxEditDistance);
-
-      //combi check, always before split
-      if (i > 0 && !isLastCombi
-          && lookupCombineWords(items[i], items[i - 1], suggestions, suggestionParts,
-          maxEditDistance)) {
-        isLastCombi = true;
-        continue;
-      }
-
-      isLastCombi = false;
-
-      if (CollectionUtils.isNotEmpty(suggestions) && (suggestions.get(0).getDistance() == 0
-          || items[i].length() == 1)) {
-        //choose best suggestion
-        suggestionParts.add(suggestions.get(0));
-      } else {
-        lookupSplitWords(suggestionParts, suggestions, items[i], maxEditDistance);
-      }
-
-
+      isLastCombi = lookupCompoundTerm(dataHolder, items[i], i > 0 ? items[i - 1] : null,
+          isLastCombi, suggestionParts, maxEditDistance, deadline, termSuggestions);
     }
 
     String joinedTerm = "";
@@ -121,6 +164,123 @@ public class SymSpellCheck extends SpellChecker {
     return Collections.singletonList(suggestionItem);
   }
 
+  /**
+   * Compound lookup of a text read from the reader, tokenized on whitespace. The corrected parts
+   * are handed out by the returned stream while the text is read, see {@link
+   * CompoundLookupStream}. The reader is not closed.
+   *
+   * @param reader          the text being spell checked
+   * @param maxEditDistance The maximum edit distance between input and suggested words.
+   * @return the stream of the corrected parts
+   */
+  public CompoundLookupStream lookupCompoundStream(Reader reader, double maxEditDistance)
+      throws SpellCheckException {
+    return newCompoundLookupStream(new CompoundLookupStream.ReaderTerms(reader),
+        maxEditDistance);
+  }
+
+  /**
+   * Compound lookup of a text given in chunks, such as lines, tokenized on whitespace and on the
+   * ends of the chunks. See {@link #lookupCompoundStream(Reader, double)}.
+   *
+   * @param chunks          the text being spell checked
+   * @param maxEditDistance The maximum edit distance between input and suggested words.
+   * @return the stream of the corrected parts
+   */
+  public CompoundLookupStream lookupCompoundStream(Iterator<? extends CharSequence> chunks,
+      double maxEditDistance) throws SpellCheckException {
+    return newCompoundLookupStream(new CompoundLookupStream.ChunkTerms(chunks), maxEditDistance);
+  }
+
+  private CompoundLookupStream newCompoundLookupStream(CompoundLookupStream.Terms terms,
+      double maxEditDistance) throws SpellCheckException {
+    if (maxEditDistance > spellCheckSettings.getMaxEditDistance()) {
+      throw new SpellCheckException(SpellCheckExceptionCode.LOOKUP_ERROR,
+          "max Edit distance should be less than  global Max i.e" + spellCheckSettings
+              .getMaxEditDistance());
+    }
+    return new CompoundLookupStream(this, dataHolder, terms, maxEditDistance,
+        spellCheckSettings.isLowerCaseTerms());
+  }
+
+  /**
+   * Correct the next term of a compound lookup, by itself, combined with the previous term or
+   * split in two, and add its part to the suggestion parts. Only the last part may still be
+   * replaced, by the combination with the term after it.
+   *
+   * @param dataHolder      the dictionary read by the whole compound lookup
+   * @param previousTerm    the term before, null for the first term
+   * @param isLastCombi     whether the previous term was combined with the one before it
+   * @param suggestionParts Partial suggestions list.
+   * @return whether the term was combined with the previous term
+   */
+  boolean lookupCompoundTerm(DataHolder dataHolder, String term, String previousTerm,
+      boolean isLastCombi, List<SuggestionItem> suggestionParts, double maxEditDistance,
+      Deadline deadline, Map<String, SuggestionItem[]> termSuggestions)
+      throws SpellCheckException {
+    //Normal suggestions
+    List<SuggestionItem> suggestions = lookupTerm(dataHolder, term, maxEditDistance, deadline,
+        termSuggestions);
+
+    if (Deadline.hasExpired(deadline)) {
+      //out of time, no more combining and splitting
+      suggestionParts.add(CollectionUtils.isNotEmpty(suggestions) ? suggestions.get(0)
+          : new SuggestionItem(term, maxEditDistance + 1, 0));
+      return false;
+    }
+
+    //combi check, always before split
+    if (previousTerm != null && !isLastCombi
+        && lookupCombineWords(dataHolder, term, previousTerm, suggestions, suggestionParts,
+        maxEditDistance, deadline, termSuggestions)) {
+      return true;
+    }
+
+    if (CollectionUtils.isNotEmpty(suggestions) && (suggestions.get(0).getDistance() == 0
+        || term.length() == 1)) {
+      //choose best suggestion
+      suggestionParts.add(suggestions.get(0));
+    } else {
+      lookupSplitWords(dataHolder, suggestionParts, suggestions, term, maxEditDistance,
+          deadline, termSuggestions);
+    }
+    return false;
+  }
+
+  /**
+   * TOP lookup of a term of a compound lookup. The same terms come up again and again as words,
+   * splits and combinations of a phrase, so the suggestions of every term are kept for the rest
+   * of the call. The edit distance is the same for the whole call and not part of the key.
+   * Copies are handed out, as the compound lookup adjusts the distance of the suggestions it
+   * picks.
+   *
+   * @param termSuggestions suggestions of the terms looked up so far in the call
+   */
+  private List<SuggestionItem> lookupTerm(DataHolder dataHolder, String term,
+      double maxEditDistance, Deadline deadline, Map<String, SuggestionItem[]> termSuggestions)
+      throws SpellCheckException {
+    termLookups.increment();
+    SuggestionItem[] known = termSuggestions.get(term);
+    if (known != null) {
+      termLookupReuses.increment();
+      List<SuggestionItem> suggestionItems = new ArrayList<>(known.length);
+      for (SuggestionItem suggestionItem : known) {
+        suggestionItems.add(suggestionItem.copy());
+      }
+      return suggestionItems;
+    }
+    List<SuggestionItem> suggestionItems = lookup(dataHolder, term, Verbosity.TOP,
+        maxEditDistance, deadline);
+    if (!Deadline.isTruncated(deadline)) {
+      known = new SuggestionItem[suggestionItems.size()];
+      for (int i = 0; i < known.length; i++) {
+        known[i] = suggestionItems.get(i).copy();
+      }
+      termSuggestions.put(term, known);
+    }
+    return suggestionItems;
+  }
+
   /**
    * supports compound aware automatic spelling correction of multi-word input strings with
    * mistakenly omitted space between two correct words led to one incorrect combined term
@@ -130,12 +290,15 @@ public class SymSpellCheck extends SpellChecker {
    * @param maxEditDistance The maximum edit distance between input and suggested words.
    * @param suggestions     Suggestions items List
    * @param suggestionParts Partial suggestions list.
+   * @param deadline        Deadline of the call, null if unbounded.
+   * @param termSuggestions Suggestions of the terms looked up so far in the call.
    */
-  private boolean lookupCombineWords(String token, String previousToken,
+  private boolean lookupCombineWords(DataHolder dataHolder, String token, String previousToken,
       List<SuggestionItem> suggestions,
-      List<SuggestionItem> suggestionParts, double maxEditDistance) throws SpellCheckException {
-    List<SuggestionItem> suggestionsCombi = lookup(previousToken + token, Verbosity.TOP,
-        maxEditDistance);
+      List<SuggestionItem> suggestionParts, double maxEditDistance, Deadline deadline,
+      Map<String, SuggestionItem[]> termSuggestions) throws SpellCheckException {
+    List<SuggestionItem> suggestionsCombi = lookupTerm(dataHolder, previousToken + token,
+        maxEditDistance, deadline, termSuggestions);
     if (CollectionUtils.isEmpty(suggestionsCombi)) {
       return false;
     }
@@ -169,10 +332,12 @@ public class SymSpellCheck extends SpellChecker {
    * @param suggestions     Suggestions items List
    * @param maxEditDistance The maximum edit distance between input and suggested words.
    * @param suggestionParts Partial suggestions list.
+   * @param deadline        Deadline of the call, null if unbounded.
+   * @param termSuggestions Suggestions of the terms looked up so far in the call.
    */
-  private void lookupSplitWords(List<SuggestionItem> suggestionParts,
-      List<SuggestionItem> suggestions, String word, double maxEditDistance)
-      throws SpellCheckException {
+  private void lookupSplitWords(DataHolder dataHolder, List<SuggestionItem> suggestionParts,
+      List<SuggestionItem> suggestions, String word, double maxEditDistance, Deadline deadline,
+      Map<String, SuggestionItem[]> termSuggestions) throws SpellCheckException {
 
     //if no perfect suggestion, split word into pairs
     SuggestionItem suggestionSplitBest = null;
@@ -186,17 +351,21 @@ public class SymSpellCheck extends SpellChecker {
     }
 
     for (int j = 1; j < word.length(); j++) {
+      if (Deadline.hasExpired(deadline)) {
+        break;
+      }
       String part1 = word.substring(0, j);
       String part2 = word.substring(j);
 
-      List<SuggestionItem> suggestions1 = lookup(part1, Verbosity.TOP,
-          maxEditDistance);
+      List<SuggestionItem> suggestions1 = lookupTerm(dataHolder, part1, maxEditDistance, deadline,
+          termSuggestions);
 
       if (SpellHelper.continueConditionIfHeadIsSame(suggestions, suggestions1)) {
         continue;
       }
 
-      List<SuggestionItem> suggestions2 = lookup(part2, Verbosity.TOP, maxEditDistance);
+      List<SuggestionItem> suggestions2 = lookupTerm(dataHolder, part2, maxEditDistance, deadline,
+          termSuggestions);
 
       if (SpellHelper.continueConditionIfHeadIsSame(suggestions, suggestions2)) {
         continue;
@@ -272,6 +441,28 @@ public class SymSpellCheck extends SpellChecker {
   public List<SuggestionItem> lookup(String phrase, Verbosity verbosity,
       double maxEditDistance)
       throws SpellCheckException {
+    return lookup(dataHolder, phrase, verbosity, maxEditDistance, null);
+  }
+
+  /**
+   * Lookup which stops expanding candidates when the time budget of the options expires, and
+   * returns the best suggestions found until then.
+   */
+  @Override
+  public LookupResult lookup(String phrase, Verbosity verbosity, double maxEditDistance,
+      LookupOptions lookupOptions) throws SpellCheckException {
+    Deadline deadline = Deadline.start(lookupOptions);
+    List<SuggestionItem> suggestionItems = lookup(dataHolder, phrase, verbosity, maxEditDistance,
+        deadline);
+    return new LookupResult(suggestionItems, Deadline.isTruncated(deadline));
+  }
+
+  /**
+   * Lookup against the given dictionary, read once by the public entry point so the whole call
+   * reads the same dictionary, even if it is swapped meanwhile.
+   */
+  private List<SuggestionItem> lookup(DataHolder dataHolder, String phrase, Verbosity verbosity,
+      double maxEditDistance, Deadline deadline) throws SpellCheckException {
 
     if (maxEditDistance <= 0) {
       maxEditDistance = spellCheckSettings.getMaxEditDistance();
@@ -288,10 +479,8 @@ public class SymSpellCheck extends SpellChecker {
       phrase = phrase.toLowerCase();
     }
     double suggestionCount = 0;
-    Set<String> consideredDeletes = new HashSet<>();
-    Set<String> consideredSuggestions = new HashSet<>();
     List<SuggestionItem> suggestionItems = new ArrayList<>(
-        spellCheckSettings.getTopK());
+        Math.min(Math.max(spellCheckSettings.getTopK(), 1), 16));
 
     /*
       Early exit when in exclusion list
@@ -311,31 +500,41 @@ public class SymSpellCheck extends SpellChecker {
 
     Double frequency = dataHolder.getItemFrequency(phrase);
 
+    LookupContext context = lookupContext.get();
+    context.reset(phraseLen);
+    // ALL and CLOSEST collect into a heap bounded by topK, TOP keeps a single suggestion
+    TopSuggestions topSuggestions = context.topSuggestions();
+    topSuggestions.reset(spellCheckSettings.getTopK());
+
     if (frequency != null) {
       suggestionCount = frequency;
-      suggestionItems.add(new SuggestionItem(phrase, 0, suggestionCount));
+      SuggestionItem si = new SuggestionItem(phrase, 0, suggestionCount);
 
       if (verbosity != Verbosity.ALL) {
+        suggestionItems.add(si);
         return SpellHelper.earlyExit(suggestionItems, phrase, maxEditDistance,
             spellCheckSettings.isIgnoreUnknown());
       }
+      topSuggestions.add(si);
     }
 
-    consideredSuggestions.add(phrase);
+    context.addSuggestion(phrase);
     double maxEditDistance2 = maxEditDistance;
     final int phrasePrefixLen;
-    List<String> candidates = new ArrayList<>();
 
     if (phraseLen > spellCheckSettings.getPrefixLength()) {
       phrasePrefixLen = spellCheckSettings.getPrefixLength();
-      candidates.add(phrase.substring(0, phrasePrefixLen));
+      context.addCandidate(phrase, phrasePrefixLen);
     } else {
       phrasePrefixLen = phraseLen;
     }
-    candidates.add(phrase);
+    context.addCandidate(phrase, phraseLen);
 
-    while (CollectionUtils.isNotEmpty(candidates)) {
-      String candidate = candidates.remove(0);
+    while (context.hasCandidate()) {
+      if (Deadline.hasExpired(deadline)) {
+        break;
+      }
+      CharSequence candidate = context.nextCandidate();
       int candidateLen = candidate.length();
       int lenDiff = phraseLen - candidateLen;
       /*
@@ -353,15 +552,25 @@ public class SymSpellCheck extends SpellChecker {
       /*
       read candidate entry from dictionary
        */
-      String[] deletes = dataHolder.getDeletes(candidate);
-      if (deletes != null && deletes.length > 0) {
+      String[] deletes = context.suggestionBuffer();
+      int deleteCount;
+      while ((deleteCount = dataHolder.getDeletes(candidate, candidateLen, deletes))
+          > deletes.length) {
+        deletes = context.growSuggestionBuffer(deleteCount);
+      }
+      if (deleteCount > 0) {
 
-        for (String suggestion : deletes) {
+        for (int d = 0; d < deleteCount; d++) {
+          String suggestion = deletes[d];
+          if (suggestion.length() == candidateLen && !suggestion.contentEquals(candidate)) {
+            collisionRejections.increment();
+            continue;
+          }
           if (
               filterOnEquivalance(suggestion, phrase, candidate, maxEditDistance2)
                   ||
                   filterOnPrefixLen(suggestion.length(), spellCheckSettings.getPrefixLength(),
-                      phrasePrefixLen, candidate.length(), maxEditDistance2)) {
+                      phrasePrefixLen, candidateLen, maxEditDistance2)) {
             continue;
           }
           /*
@@ -394,12 +603,12 @@ public class SymSpellCheck extends SpellChecker {
                         suggestion_len<=max_edit_distance)
             */
             distance = Math.max(phraseLen, suggestion.length());
-            if (distance > maxEditDistance2 || !consideredSuggestions.add(suggestion)) {
+            if (distance > maxEditDistance2 || !context.addSuggestion(suggestion)) {
               continue;
             }
           } else if (suggestion.length() == 1) {
             distance = phrase.indexOf(suggestion.charAt(0)) < 0 ? phraseLen : phraseLen - 1;
-            if (distance > maxEditDistance2 || !consideredSuggestions.add(suggestion)) {
+            if (distance > maxEditDistance2 || !context.addSuggestion(suggestion)) {
               continue;
             }
           } else {
@@ -409,19 +618,23 @@ public class SymSpellCheck extends SpellChecker {
               evaluates to False
              */
 
-            minDistance = getMinDistanceOnPrefixbasis(maxEditDistance, candidate,
+            minDistance = getMinDistanceOnPrefixbasis(maxEditDistance, candidateLen,
                 phrase, suggestion);
 
             if (isDistanceCalculationRequired(phrase, maxEditDistance, minDistance, suggestion,
-                candidate)) {
+                candidateLen)) {
               continue;
             } else {
               if (verbosity != Verbosity.ALL
                   && !deleteInSuggestionPrefix(candidate, candidateLen,
-                  suggestion, suggestion.length()) || !consideredSuggestions
-                  .add(suggestion)) {
+                  suggestion, suggestion.length())) {
+                collisionRejections.increment();
+                continue;
+              }
+              if (!context.addSuggestion(suggestion)) {
                 continue;
               }
+              distanceComputations.increment();
               distance = stringDistance.getDistance(phrase, suggestion, maxEditDistance2);
               if (distance < 0) {
                 continue;
@@ -430,11 +643,17 @@ public class SymSpellCheck extends SpellChecker {
           }
 
           if (SpellHelper.isLessOrEqualDouble(distance, maxEditDistance2, 0.01)) {
-            suggestionCount = dataHolder.getItemFrequency(suggestion);
+            Double count = dataHolder.getItemFrequency(suggestion);
+            if (count == null) {
+              // removed from a dictionary updated concurrently, after its deletes were read
+              continue;
+            }
+            suggestionCount = count;
             SuggestionItem si = new SuggestionItem(suggestion, distance, suggestionCount);
-            if (CollectionUtils.isNotEmpty(suggestionItems)) {
+            if (verbosity == Verbosity.TOP ? !suggestionItems.isEmpty()
+                : !topSuggestions.isEmpty()) {
               if (verbosity == Verbosity.CLOSEST && distance < maxEditDistance2) {
-                suggestionItems.clear();
+                topSuggestions.clear();
               } else if (verbosity == Verbosity.TOP) {
                 if (SpellHelper.isLessDouble(distance, maxEditDistance2, 0.01)
                     || suggestionCount > suggestionItems.get(0).getCount()) {
@@ -448,34 +667,100 @@ public class SymSpellCheck extends SpellChecker {
             if (verbosity != Verbosity.ALL) {
               maxEditDistance2 = distance;
             }
-            suggestionItems.add(si);
+            if (verbosity == Verbosity.TOP) {
+              suggestionItems.add(si);
+            } else if (topSuggestions.add(si) && verbosity == Verbosity.ALL
+                && topSuggestions.isFull()) {
+              // suggestions farther than the worst of the full heap can no longer make it, so
+              // stop expanding and verifying anything beyond its distance
+              maxEditDistance2 = Math.min(maxEditDistance2, topSuggestions.worst().getDistance());
+            }
           }
         }
       }
 
       if (lenDiff < maxEditDistance && candidateLen <= spellCheckSettings.getPrefixLength()) {
-        if (verbosity != Verbosity.ALL && lenDiff >= maxEditDistance2) {
+        if ((verbosity != Verbosity.ALL || topSuggestions.isFull())
+            && lenDiff >= maxEditDistance2) {
           continue;
         }
 
         for (int i = 0; i < candidateLen; i++) {
-          String delete = candidate.substring(0, i) + candidate.substring(i + 1, candidateLen);
-          if (consideredDeletes.add(delete)) {
-            candidates.add(delete);
-          }
+          context.addDelete(i);
         }
 
       }
     }
 
+    topSuggestions.drainTo(suggestionItems);
     return suggestionItems;
   }
 
 
-  private int getMinDistanceOnPrefixbasis(double maxEditDistance, String candidate, String
+  /**
+   * Number of suggestions rejected because they only shared the hash of a candidate delete, see
+   * {@link io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings#getHashAlgorithm()}.
+   *
+   * @return rejected suggestions since creation or the last {@link #resetStatistics()}
+   */
+  public long getCollisionRejections() {
+    return collisionRejections.sum();
+  }
+
+  /**
+   * Number of edit distances computed by lookups.
+   *
+   * @return computed distances since creation or the last {@link #resetStatistics()}
+   */
+  public long getDistanceComputations() {
+    return distanceComputations.sum();
+  }
+
+  /**
+   * Number of terms looked up by compound lookups, including the splits and combinations of the
+   * terms of the phrase.
+   *
+   * @return term lookups since creation or the last {@link #resetStatistics()}
+   */
+  public long getCompoundTermLookups() {
+    return termLookups.sum();
+  }
+
+  /**
+   * Number of term lookups of compound lookups which reused the suggestions of an earlier lookup
+   * of the same term within the call.
+   *
+   * @return reused term lookups since creation or the last {@link #resetStatistics()}
+   */
+  public long getCompoundTermLookupReuses() {
+    return termLookupReuses.sum();
+  }
+
+  /**
+   * Number of parts of word segmentations which were taken as unknown words without a lookup,
+   * because {@link DataHolder#isTermPrefix(String)} ruled out a shorter part they start with.
+   *
+   * @return skipped lookups since creation or the last {@link #resetStatistics()}
+   */
+  public long getSkippedSegmentLookups() {
+    return skippedSegmentLookups.sum();
+  }
+
+  /**
+   * Reset all lookup statistics to 0.
+   */
+  public void resetStatistics() {
+    collisionRejections.reset();
+    distanceComputations.reset();
+    termLookups.reset();
+    skippedSegmentLookups.reset();
+    termLookupReuses.reset();
+  }
+
+  private int getMinDistanceOnPrefixbasis(double maxEditDistance, int candidateLen, String
       phrase,
       String suggestion) {
-    if ((spellCheckSettings.getPrefixLength() - maxEditDistance) == candidate.length()) {
+    if ((spellCheckSettings.getPrefixLength() - maxEditDistance) == candidateLen) {
       return
           Math.min(phrase.length(), suggestion.length()) - spellCheckSettings.getPrefixLength();
     } else {
@@ -491,20 +776,20 @@ public class SymSpellCheck extends SpellChecker {
         && (suggestionPrefixLen - candidateLen) > maxEditDistance2);
   }
 
-  private boolean filterOnEquivalance(String delete, String phrase, String candidate,
+  private boolean filterOnEquivalance(String delete, String phrase, CharSequence candidate,
       double maxEditDistance2) {
 
     return (delete.equals(phrase)
         || (Math.abs(delete.length() - phrase.length()) > maxEditDistance2)
         || (delete.length() < candidate.length()) || (delete.length() == candidate.length()
-        && !delete.equals(candidate)));
+        && !delete.contentEquals(candidate)));
   }
 
   /**
    * Check whether all delete chars are present in the suggestion prefix in correct order, otherwise
    * this is just a hash collision
    */
-  private boolean deleteInSuggestionPrefix(String delete, int deleteLen, String suggestion,
+  private boolean deleteInSuggestionPrefix(CharSequence delete, int deleteLen, String suggestion,
       int suggestionLen) {
     if (deleteLen == 0) {
       return true;
@@ -527,11 +812,11 @@ public class SymSpellCheck extends SpellChecker {
   }
 
   private boolean isDistanceCalculationRequired(String phrase, double maxEditDistance, int min,
-      String suggestion, String candidate) {
-    return phrase.length() - maxEditDistance == candidate.length()
+      String suggestion, int candidateLen) {
+    return phrase.length() - maxEditDistance == candidateLen
         && (min > 1
-        && !(phrase.substring(phrase.length() + 1 - min)
-        .equals(suggestion.substring(suggestion.length() + 1 - min))))
+        && !phrase.regionMatches(phrase.length() + 1 - min,
+        suggestion, suggestion.length() + 1 - min, min - 1))
         || (min > 0
         && phrase.charAt(phrase.length() - min) != suggestion
         .charAt(suggestion.length() - min)
@@ -541,6 +826,16 @@ public class SymSpellCheck extends SpellChecker {
         .charAt(suggestion.length() - min - 1));
   }
 
+  /**
+   * Whether the lookup of the phrase returns before looking for terms, with a suggestion that is
+   * not a term.
+   */
+  private boolean hasEarlyExit(DataHolder dataHolder, String phrase, double maxEditDistance) {
+    return StringUtils.isNotEmpty(dataHolder.getExclusionItem(phrase))
+        || (!spellCheckSettings.isIgnoreUnknown()
+        && (phrase.length() - maxEditDistance) > spellCheckSettings.getMaxLength());
+  }
+
   /**
    * word_segmentation` divides a string into words by inserting missing spaces at the appropriate
    * positions misspelled words are corrected and do not affect segmentation existing spaces are
@@ -560,6 +855,27 @@ public class SymSpellCheck extends SpellChecker {
    */
   public Composition wordBreakSegmentation(String phrase, int maxSegmentationWordLength,
       double maxEditDistance) throws SpellCheckException {
+    return wordBreakSegmentation(phrase, maxSegmentationWordLength, maxEditDistance, null);
+  }
+
+  /**
+   * Word segmentation with the lookups of the parts run on the executor, see {@link
+   * #wordBreakSegmentation(String, int, double)}. The start positions of the phrase are taken in
+   * blocks, the parts from the starts of a block are looked up in parallel chunks, then the
+   * compositions are updated with them in the same order as a sequential segmentation, so the
+   * result is the same.
+   *
+   * @param phrase                    The string being spell checked.
+   * @param maxSegmentationWordLength The maximum word length
+   * @param maxEditDistance           The maximum edit distance
+   * @param executor                  executor running the lookups, or null to run them on the
+   *                                  calling thread
+   * @return The word segmented string
+   * @throws SpellCheckException the first exception thrown by a lookup
+   */
+  @Override
+  public Composition wordBreakSegmentation(String phrase, int maxSegmentationWordLength,
+      double maxEditDistance, Executor executor) throws SpellCheckException {
 
     /*
     number of all words in the corpus used to generate the
@@ -584,6 +900,8 @@ public class SymSpellCheck extends SpellChecker {
       phrase = phrase.toLowerCase();
     }
 
+    // the whole segmentation reads the same dictionary, even if it is swapped meanwhile
+    DataHolder dataHolder = this.dataHolder;
     /*
       Early exit when in exclusion list
      */
@@ -591,59 +909,156 @@ public class SymSpellCheck extends SpellChecker {
       return new Composition(phrase, dataHolder.getExclusionItem(phrase), 0, 0);
     }
 
-    int arraySize = Math.min(maxSegmentationWordLength, phrase.length());
-    Composition[] compositions = new Composition[arraySize];
-    for (int i = 0; i < arraySize; i++) {
-      compositions[i] = new Composition();
+    int phraseLength = phrase.length();
+    /*
+    best composition of the chars [0, end) of the phrase for every end, as the start of its last
+    part, the term chosen for that part (null for an unknown word), whether the term gets the
+    uppercase first char of the original part, and the sums of the edit distances and the log
+    probabilities. The strings are only built for the best composition of the whole phrase.
+     */
+    int[] partStarts = new int[phraseLength + 1];
+    String[] partTerms = new String[phraseLength + 1];
+    boolean[] capitalized = new boolean[phraseLength + 1];
+    int[] distanceSums = new int[phraseLength + 1];
+    double[] logProbSums = new double[phraseLength + 1];
+    int maxPartLength = Math.max(0, Math.min(maxSegmentationWordLength, phraseLength));
+    int blockSize = executor == null ? 1 : SEGMENTATION_BLOCK_SIZE;
+    SegmentationParts parts = new SegmentationParts(dataHolder, phrase, originalPhrase,
+        maxSegmentationWordLength, maxEditDistance, Math.min(blockSize, phraseLength),
+        maxPartLength);
+    for (int blockStart = 0; blockStart < phraseLength; blockStart += blockSize) {
+      int blockEnd = Math.min(blockStart + blockSize, phraseLength);
+      if (executor == null) {
+        lookupParts(parts, blockStart, blockStart, blockEnd, new StringBuilder());
+      } else {
+        lookupParts(parts, blockStart, blockEnd, executor);
+      }
+      //outer loop (column): all possible part start positions
+      for (int j = blockStart; j < blockEnd; j++) {
+        //inner loop (row): all possible part lengths (from start position): part can't be
+        // bigger than longest word in dictionary (other than long unknown word)
+        int imax = Math.min(phraseLength - j, maxSegmentationWordLength);
+        //add ed+1: space did not exist, had to be inserted
+        int separatorLength = Character.isWhitespace(phrase.charAt(j)) ? 0 : 1;
+        int offset = (j - blockStart) * maxPartLength - 1;
+        for (int i = 1; i <= imax; i++) {
+          int end = j + i;
+          int topEd = parts.distances[offset + i];
+          double topProbabilityLog = parts.logProbs[offset + i];
+
+          //set values in first loop
+          if (j == 0 || (i == maxSegmentationWordLength)
+              //replace values if better probabilityLogSum, if same edit distance OR one
+              // space difference
+              || (((distanceSums[j] + topEd == distanceSums[end])
+              || (distanceSums[j] + separatorLength + topEd == distanceSums[end]))
+              && (logProbSums[end] < logProbSums[j] + topProbabilityLog))
+              //replace values if smaller edit distance
+              || (distanceSums[j] + separatorLength + topEd < distanceSums[end])) {
+            partStarts[end] = j;
+            partTerms[end] = parts.terms[offset + i];
+            capitalized[end] = parts.capitalized[offset + i];
+            distanceSums[end] = distanceSums[j] + topEd;
+            logProbSums[end] = logProbSums[j] + topProbabilityLog;
+          }
+        }
+      }
+    }
+    return toComposition(phrase, partStarts, partTerms, capitalized,
+        distanceSums[phraseLength], logProbSums[phraseLength]);
+  }
+
+  /**
+   * Look up the parts from the starts of the block [blockStart, blockEnd) in chunks on the
+   * executor.
+   */
+  private void lookupParts(SegmentationParts parts, int blockStart, int blockEnd,
+      Executor executor) throws SpellCheckException {
+    int chunkCount = Math.min(blockEnd - blockStart,
+        4 * Runtime.getRuntime().availableProcessors());
+    List<CompletableFuture<Void>> chunks = new ArrayList<>(chunkCount);
+    for (int chunk = 0; chunk < chunkCount; chunk++) {
+      int from = blockStart + (int) ((long) (blockEnd - blockStart) * chunk / chunkCount);
+      int to = blockStart + (int) ((long) (blockEnd - blockStart) * (chunk + 1) / chunkCount);
+      chunks.add(CompletableFuture.runAsync(() -> {
+        try {
+          lookupParts(parts, blockStart, from, to, new StringBuilder());
+        } catch (SpellCheckException ex) {
+          throw new CompletionException(ex);
+        }
+      }, executor));
     }
-    int circularIndex = -1;
-    //outer loop (column): all possible part start positions
-    for (int j = 0; j < phrase.length(); j++) {
-      //inner loop (row): all possible part lengths (from start position): part can't be bigger
-      // than longest word in dictionary (other than long unknown word)
-      int imax = Math.min(phrase.length() - j, maxSegmentationWordLength);
-      for (int i = 1; i <= imax; i++) {
-        //get top spelling correction/ed for part
-        String part = phrase.substring(j, j + i);
-        // v6.7.0 - Get original part for case detection
-        String originalPart = originalPhrase.substring(j, j + i);
-        int separatorLength = 0;
-        int topEd = 0;
-        double topProbabilityLog;
-        String topResult;
-        if (Character.isWhitespace(part.charAt(0))) {
-          //remove space for levensthein calculation
-          part = part.substring(1);
-          originalPart = originalPart.substring(1);
-        } else {
-          //add ed+1: space did not exist, had to be inserted
-          separatorLength = 1;
+    for (CompletableFuture<Void> chunk : chunks) {
+      try {
+        chunk.join();
+      } catch (CompletionException ex) {
+        if (ex.getCause() instanceof SpellCheckException) {
+          throw (SpellCheckException) ex.getCause();
         }
+        throw new SpellCheckException("Word segmentation failed", ex.getCause(),
+            SpellCheckExceptionCode.LOOKUP_ERROR);
+      }
+    }
+  }
 
-        //remove space from part1, add number of removed spaces to topEd
-        topEd += part.length();
-        //remove space
-        part = part
-            .replace(" ", "");
-        originalPart = originalPart.replace(" ", "");
-        //add number of removed spaces to ed
-        topEd -= part.length();
+  /**
+   * Look up the parts from the starts [from, to) of the block starting at blockStart.
+   */
+  private void lookupParts(SegmentationParts parts, int blockStart, int from, int to,
+      StringBuilder part) throws SpellCheckException {
+    String phrase = parts.phrase;
+    double lookupEditDistance = parts.maxEditDistance <= 0
+        ? spellCheckSettings.getMaxEditDistance() : parts.maxEditDistance;
+    for (int j = from; j < to; j++) {
+      int imax = Math.min(phrase.length() - j, parts.maxSegmentationWordLength);
+      //remove space for levensthein calculation
+      boolean leadingWhitespace = Character.isWhitespace(phrase.charAt(j));
+      int offset = (j - blockStart) * parts.maxPartLength - 1;
+      int firstPartChar = -1;
+      part.setLength(0);
+      //a lookup of a part longer than prefix length + edit distance only finds the part itself,
+      // once no term starts with such a part the longer parts are unknown words as well
+      String unknownStart = null;
+      for (int i = 1; i <= imax; i++) {
+        //get top spelling correction/ed for part, the part grows by its last char unless that is
+        // the removed leading whitespace or a space
+        char c = phrase.charAt(j + i - 1);
+        if (c != ' ' && (i > 1 || !leadingWhitespace)) {
+          if (firstPartChar < 0) {
+            firstPartChar = j + i - 1;
+          }
+          part.append(c);
+        }
+        //add number of removed spaces to topEd
+        int topEd = i - (leadingWhitespace ? 1 : 0) - part.length();
+        double topProbabilityLog;
+        String topResult = null;
+        boolean topCapitalized = false;
 
         // v6.7.0 - Lookup against lowercase for dictionary matching
-        List<SuggestionItem> results = this.lookup(part.toLowerCase(), Verbosity.TOP,
-            maxEditDistance);
+        String lookupPart = part.toString().toLowerCase();
+        if (unknownStart == null
+            && lookupPart.length() - spellCheckSettings.getPrefixLength() > lookupEditDistance
+            && !parts.dataHolder.isTermPrefix(lookupPart)) {
+          unknownStart = lookupPart;
+        }
+        List<SuggestionItem> results;
+        if (unknownStart != null && lookupPart.startsWith(unknownStart)
+            && !hasEarlyExit(parts.dataHolder, lookupPart, lookupEditDistance)) {
+          skippedSegmentLookups.increment();
+          results = Collections.emptyList();
+        } else {
+          results = lookup(parts.dataHolder, lookupPart, Verbosity.TOP, parts.maxEditDistance,
+              null);
+        }
         if (CollectionUtils.isNotEmpty(results)) {
           topResult = results.get(0).getTerm();
 
           // v6.7.0 - Preserve uppercase on first character from original part
           // v6.7.2 - Safety check for length > 0
-          if (originalPart.length() > 0 && Character.isUpperCase(originalPart.charAt(0))) {
-            char[] resultChars = topResult.toCharArray();
-            if (resultChars.length > 0) {
-              resultChars[0] = Character.toUpperCase(resultChars[0]);
-              topResult = new String(resultChars);
-            }
-          }
+          topCapitalized = firstPartChar >= 0 && firstPartChar < parts.originalPhrase.length()
+              && Character.isUpperCase(parts.originalPhrase.charAt(firstPartChar))
+              && !topResult.isEmpty();
 
           topEd += results.get(0).getDistance();
           //Naive Bayes Rule
@@ -658,67 +1073,107 @@ public class SymSpellCheck extends SpellChecker {
           //log(ab)=log(a)+log(b)
           topProbabilityLog = Math.log10(results.get(0).getCount() / nMax);
         } else {
-          topResult = part;
           //default, if word not found
           //otherwise long input text would win as long unknown word (with ed=edmax+1 ), although
           // there there should many spaces inserted
           topEd += part.length();
           topProbabilityLog = Math.log10(10.0 / (nMax * Math.pow(10.0, part.length())));
         }
-        int destinationIndex = ((i + circularIndex) % arraySize);
-
-        //set values in first loop
-        if (j == 0) {
-          compositions[destinationIndex].setSegmentedString(part);
-          compositions[destinationIndex].setCorrectedString(topResult);
-          compositions[destinationIndex].setDistanceSum(topEd);
-          compositions[destinationIndex].setLogProbSum(topProbabilityLog);
-        } else if ((i == maxSegmentationWordLength)
-            //replace values if better probabilityLogSum, if same edit distance OR one
-            // space difference
-            || (((compositions[circularIndex].getDistanceSum() + topEd
-            == compositions[destinationIndex].getDistanceSum()) || (
-            compositions[circularIndex].getDistanceSum() + separatorLength + topEd
-                == compositions[destinationIndex].getDistanceSum())) && (
-            compositions[destinationIndex].getLogProbSum()
-                < compositions[circularIndex].getLogProbSum() + topProbabilityLog))
-            //replace values if smaller edit distance
-            || (compositions[circularIndex].getDistanceSum() + separatorLength + topEd
-            < compositions[destinationIndex].getDistanceSum())) {
-
-          // v6.7.0 - Keep punctuation or apostrophe adjacent to previous word (no space)
-          boolean isPunctuation = (topResult.length() == 1
-              && Character.getType(topResult.charAt(0)) >= Character.DASH_PUNCTUATION
-              && Character.getType(topResult.charAt(0)) <= Character.OTHER_PUNCTUATION);
-          boolean isApostrophe = (topResult.length() == 2 && topResult.startsWith("'"));
-
-          if (isPunctuation || isApostrophe) {
-            // No space before punctuation/apostrophe
-            compositions[destinationIndex].setSegmentedString(
-                compositions[circularIndex].getSegmentedString() + part);
-            compositions[destinationIndex].setCorrectedString(
-                compositions[circularIndex].getCorrectedString() + topResult);
-          } else {
-            // Normal case: add space
-            compositions[destinationIndex].setSegmentedString(
-                compositions[circularIndex].getSegmentedString() + " " + part);
-            compositions[destinationIndex].setCorrectedString(
-                compositions[circularIndex].getCorrectedString() + " " + topResult);
-          }
+        parts.distances[offset + i] = topEd;
+        parts.logProbs[offset + i] = topProbabilityLog;
+        parts.terms[offset + i] = topResult;
+        parts.capitalized[offset + i] = topCapitalized;
+      }
+    }
+  }
 
-          compositions[destinationIndex].setDistanceSum(
-              compositions[circularIndex].getDistanceSum() + topEd);
-          compositions[destinationIndex].setLogProbSum(
-              compositions[circularIndex].getLogProbSum() + topProbabilityLog);
-        }
+  /**
+   * Build the strings of the best composition of the whole phrase by following the part starts
+   * back from its end.
+   */
+  private static Composition toComposition(String phrase, int[] partStarts, String[] partTerms,
+      boolean[] capitalized, int distanceSum, double logProbSum) {
+    int[] partEnds = new int[phrase.length()];
+    int partCount = 0;
+    for (int end = phrase.length(); end > 0; end = partStarts[end]) {
+      partEnds[partCount++] = end;
+    }
+    if (partCount == 0) {
+      return new Composition();
+    }
+    StringBuilder segmented = new StringBuilder(phrase.length() + partCount);
+    StringBuilder corrected = new StringBuilder(phrase.length() + partCount);
+    for (int p = partCount - 1; p >= 0; p--) {
+      int end = partEnds[p];
+      int start = partStarts[end];
+      String part = segmentationPart(phrase, start, end);
+      String topResult = partTerms[end] == null ? part : partTerms[end];
+      if (capitalized[end]) {
+        topResult = Character.toUpperCase(topResult.charAt(0)) + topResult.substring(1);
       }
-      circularIndex++;
-      if (circularIndex >= arraySize) {
-        circularIndex = 0;
+      if (start > 0) {
+        // v6.7.0 - Keep punctuation or apostrophe adjacent to previous word (no space)
+        boolean isPunctuation = (topResult.length() == 1
+            && Character.getType(topResult.charAt(0)) >= Character.DASH_PUNCTUATION
+            && Character.getType(topResult.charAt(0)) <= Character.OTHER_PUNCTUATION);
+        boolean isApostrophe = (topResult.length() == 2 && topResult.startsWith("'"));
+        if (!isPunctuation && !isApostrophe) {
+          segmented.append(' ');
+          corrected.append(' ');
+        }
       }
+      segmented.append(part);
+      corrected.append(topResult);
     }
-    return compositions[circularIndex];
+    return new Composition(segmented.toString(), corrected.toString(), distanceSum, logProbSum);
   }
 
+  /**
+   * The part of the phrase segmentation looks up for the chars [start, end), without a leading
+   * whitespace and without spaces.
+   */
+  private static String segmentationPart(String phrase, int start, int end) {
+    StringBuilder part = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      char c = phrase.charAt(i);
+      if (c != ' ' && (i > start || !Character.isWhitespace(c))) {
+        part.append(c);
+      }
+    }
+    return part.toString();
+  }
 
+  /**
+   * The best term of every part looked up by a word segmentation, for the parts from the starts
+   * of one block. The part of length i from the start j is kept at (j - blockStart) *
+   * maxPartLength + i - 1.
+   */
+  private static final class SegmentationParts {
+
+    private final DataHolder dataHolder;
+    private final String phrase;
+    private final String originalPhrase;
+    private final int maxSegmentationWordLength;
+    private final double maxEditDistance;
+    private final int maxPartLength;
+    private final int[] distances;
+    private final double[] logProbs;
+    private final String[] terms;
+    private final boolean[] capitalized;
+
+    SegmentationParts(DataHolder dataHolder, String phrase, String originalPhrase,
+        int maxSegmentationWordLength, double maxEditDistance, int blockSize, int maxPartLength) {
+      this.dataHolder = dataHolder;
+      this.phrase = phrase;
+      this.originalPhrase = originalPhrase;
+      this.maxSegmentationWordLength = maxSegmentationWordLength;
+      this.maxEditDistance = maxEditDistance;
+      this.maxPartLength = maxPartLength;
+      int size = blockSize * maxPartLength;
+      this.distances = new int[size];
+      this.logProbs = new double[size];
+      this.terms = new String[size];
+      this.capitalized = new boolean[size];
+    }
+  }
 }
@@ -0,0 +1,164 @@
+package io.github.mightguy.spellcheck.symspell.impl;
+
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Suggestions collected by a {@link Verbosity#ALL} or {@link Verbosity#CLOSEST} lookup, bounded
+ * to the best {@link SpellCheckSettings#getTopK()} entries by {@link SuggestionItem#compareTo}.
+ *
+ * <p>While bounded the entries are kept in a binary heap with the worst entry on top, so a
+ * suggestion is admitted or rejected in O(log k), and the distance of the worst entry tells the
+ * lookup which distances cannot make it into the result anymore. Entries that compare equal keep
+ * the order they were found in, the same as sorting the unbounded suggestions. An unbounded
+ * instance simply keeps the suggestions in the order they were found.
+ */
+final class TopSuggestions {
+
+  private int capacity;
+  private SuggestionItem[] items = new SuggestionItem[16];
+  /**
+   * Order in which each heap entry was found, breaks ties between entries that compare equal.
+   */
+  private long[] sequences = new long[16];
+  private long sequence;
+  private int size;
+
+  /**
+   * Clear the suggestions and set the bound of the next lookup.
+   *
+   * @param topK max number of suggestions to keep, 0 or less keeps all of them
+   */
+  void reset(int topK) {
+    Arrays.fill(items, 0, size, null);
+    size = 0;
+    sequence = 0;
+    capacity = topK > 0 ? topK : Integer.MAX_VALUE;
+  }
+
+  void clear() {
+    Arrays.fill(items, 0, size, null);
+    size = 0;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean isBounded() {
+    return capacity != Integer.MAX_VALUE;
+  }
+
+  /**
+   * Whether the bound is reached, so only suggestions better than {@link #worst()} can still be
+   * added.
+   */
+  boolean isFull() {
+    return size >= capacity;
+  }
+
+  /**
+   * Return the worst suggestion kept, only meaningful when bounded and not empty.
+   */
+  SuggestionItem worst() {
+    return items[0];
+  }
+
+  /**
+   * Add the suggestion, evicting the worst suggestion if the bound is reached.
+   *
+   * @return true if the suggestion was kept
+   */
+  boolean add(SuggestionItem suggestionItem) {
+    if (!isBounded()) {
+      ensureCapacity(size + 1);
+      items[size++] = suggestionItem;
+      return true;
+    }
+    long order = sequence++;
+    if (size < capacity) {
+      ensureCapacity(size + 1);
+      siftUp(size++, suggestionItem, order);
+      return true;
+    }
+    if (compare(suggestionItem, order, items[0], sequences[0]) >= 0) {
+      return false;
+    }
+    siftDown(0, suggestionItem, order);
+    return true;
+  }
+
+  /**
+   * Append the suggestions to the list, best first when bounded, and clear them.
+   */
+  void drainTo(List<SuggestionItem> suggestionItems) {
+    if (isBounded()) {
+      int count = size;
+      // repeatedly moving the worst entry behind the heap sorts the array best first
+      while (size > 1) {
+        SuggestionItem last = items[size - 1];
+        long lastOrder = sequences[size - 1];
+        items[size - 1] = items[0];
+        sequences[size - 1] = sequences[0];
+        size--;
+        siftDown(0, last, lastOrder);
+      }
+      size = count;
+    }
+    suggestionItems.addAll(Arrays.asList(items).subList(0, size));
+    clear();
+  }
+
+  private void siftUp(int index, SuggestionItem item, long order) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (compare(item, order, items[parent], sequences[parent]) <= 0) {
+        break;
+      }
+      items[index] = items[parent];
+      sequences[index] = sequences[parent];
+      index = parent;
+    }
+    items[index] = item;
+    sequences[index] = order;
+  }
+
+  private void siftDown(int index, SuggestionItem item, long order) {
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      if (child + 1 < size
+          && compare(items[child + 1], sequences[child + 1], items[child], sequences[child]) > 0) {
+        child++;
+      }
+      if (compare(item, order, items[child], sequences[child]) >= 0) {
+        break;
+      }
+      items[index] = items[child];
+      sequences[index] = sequences[child];
+      index = child;
+    }
+    items[index] = item;
+    sequences[index] = order;
+  }
+
+  /**
+   * Order by {@link SuggestionItem#compareTo}, then by the order the suggestions were found.
+   */
+  private static int compare(SuggestionItem item, long order, SuggestionItem other,
+      long otherOrder) {
+    int result = item.compareTo(other);
+    return result != 0 ? result : Long.compare(order, otherOrder);
+  }
+
+  private void ensureCapacity(int needed) {
+    if (needed > items.length) {
+      int length = Math.max(needed, items.length << 1);
+      items = Arrays.copyOf(items, length);
+      sequences = Arrays.copyOf(sequences, length);
+    }
+  }
+}
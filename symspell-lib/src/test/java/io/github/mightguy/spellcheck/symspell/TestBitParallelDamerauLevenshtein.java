@@ -0,0 +1,102 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.StringDistance;
+import io.github.mightguy.spellcheck.symspell.common.BitParallelDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.common.QwertyDistance;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.StringDistanceFactory;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TestBitParallelDamerauLevenshtein {
+
+  private final StringDistance bitParallel = new BitParallelDamerauLevenshteinDistance();
+  private final StringDistance weighted = new WeightedDamerauLevenshteinDistance(1, 1, 1, 1,
+      null);
+
+  @Test
+  public void testDistance() {
+    Assert.assertEquals(1, bitParallel.getDistance("sommer", "summer"), 0.01);
+    Assert.assertEquals(1, bitParallel.getDistance("bigjest", "big est"), 0.01);
+    Assert.assertEquals(2, bitParallel.getDistance("cool", "cola"), 0.01);
+    Assert.assertEquals(1, bitParallel.getDistance("playrs", "players"), 0.01);
+    Assert.assertEquals(1, bitParallel.getDistance("abcdfe", "abcdef"), 0.01);
+    Assert.assertEquals(2, bitParallel.getDistance("hte", "the"), 0.01);
+    Assert.assertEquals(3, bitParallel.getDistance("", "abc"), 0.01);
+    Assert.assertEquals(0, bitParallel.getDistance("slime", "slime"), 0.01);
+    Assert.assertEquals(-1, bitParallel.getDistance("playrs", "player", 1), 0.01);
+    Assert.assertEquals(-1, bitParallel.getDistance("abcdefgh", "ab", 2), 0.01);
+  }
+
+  @Test
+  public void testMatchesWeightedDistance() {
+    assertMatchesWeightedDistance("abcdeé");
+  }
+
+  @Test
+  public void testMatchesWeightedDistanceOfOtherScripts() {
+    assertMatchesWeightedDistance("абвгдежзиклмнщыaeßäöü日本語");
+  }
+
+  @Test
+  public void testFactory() {
+    Assert.assertTrue(StringDistanceFactory.create(SpellCheckSettings.builder().build(), null)
+        instanceof BitParallelDamerauLevenshteinDistance);
+    Assert.assertTrue(StringDistanceFactory.create(SpellCheckSettings.builder().build(),
+        new QwertyDistance()) instanceof WeightedDamerauLevenshteinDistance);
+    Assert.assertTrue(StringDistanceFactory.create(0.8, 1.01, 0.9, 0.7, null)
+        instanceof WeightedDamerauLevenshteinDistance);
+  }
+
+  private void assertMatchesWeightedDistance(String alphabet) {
+    Random random = new Random(7);
+    double[] maxEditDistances = {0, 1, 2, 3, Double.POSITIVE_INFINITY};
+    for (int n = 0; n < 50000; n++) {
+      int maxLength = n % 10 == 0 ? 200 : 12;
+      String w1 = randomWord(random, maxLength, alphabet);
+      String w2 = random.nextInt(3) == 0 ? mutate(random, w1)
+          : randomWord(random, maxLength, alphabet);
+      double expected = weighted.getDistance(w1, w2);
+      Assert.assertEquals(w1 + " " + w2, expected, bitParallel.getDistance(w1, w2), 0);
+      for (double maxEditDistance : maxEditDistances) {
+        Assert.assertEquals(w1 + " " + w2 + " " + maxEditDistance,
+            expected > maxEditDistance ? -1 : expected,
+            bitParallel.getDistance(w1, w2, maxEditDistance), 0);
+      }
+    }
+  }
+
+  private static String randomWord(Random random, int maxLength, String alphabet) {
+    char[] chars = new char[random.nextInt(maxLength)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+    }
+    return new String(chars);
+  }
+
+  private static String mutate(Random random, String word) {
+    StringBuilder sb = new StringBuilder(word);
+    for (int edits = random.nextInt(4); edits > 0 && sb.length() > 1; edits--) {
+      int i = random.nextInt(sb.length() - 1);
+      switch (random.nextInt(4)) {
+        case 0:
+          sb.deleteCharAt(i);
+          break;
+        case 1:
+          sb.insert(i, 'x');
+          break;
+        case 2:
+          sb.setCharAt(i, 'y');
+          break;
+        default:
+          char c = sb.charAt(i);
+          sb.setCharAt(i, sb.charAt(i + 1));
+          sb.setCharAt(i + 1, c);
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,157 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+import io.github.mightguy.spellcheck.symspell.common.LookupResult;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.CachingSpellChecker;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class TestCachingSpellChecker {
+
+  private DataHolder dataHolder;
+  private SymSpellCheck symSpellCheck;
+
+  @Before
+  public void setup() throws SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .build();
+    dataHolder = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
+    dataHolder.addItem(new DictionaryItem("word", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("world", 20.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cold", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cool", 12.0, -1.0));
+    symSpellCheck = new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testRepeatedLookupIsServedFromCache() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 100);
+    List<SuggestionItem> first = spellChecker.lookup("wrold", Verbosity.ALL, 2);
+    List<SuggestionItem> second = spellChecker.lookup("WROLD", Verbosity.ALL, 2);
+
+    Assert.assertEquals(symSpellCheck.lookup("wrold", Verbosity.ALL, 2), first);
+    Assert.assertEquals(first, second);
+    Assert.assertEquals(1, spellChecker.getHitCount());
+    Assert.assertEquals(1, spellChecker.getMissCount());
+
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    spellChecker.lookup("wrold", Verbosity.ALL, 1);
+    Assert.assertEquals(3, spellChecker.getMissCount());
+    Assert.assertEquals(3, spellChecker.getCacheSize());
+
+    spellChecker.invalidate();
+    Assert.assertEquals(0, spellChecker.getCacheSize());
+    Assert.assertEquals(0, spellChecker.getHitCount());
+  }
+
+  @Test
+  public void testCachedSuggestionsAreCopies() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 100);
+    List<SuggestionItem> first = spellChecker.lookup("wrd", Verbosity.TOP, 2);
+    first.get(0).setDistance(42);
+    first.clear();
+
+    List<SuggestionItem> second = spellChecker.lookup("wrd", Verbosity.TOP, 2);
+    Assert.assertEquals(1, second.size());
+    Assert.assertEquals(1.0, second.get(0).getDistance(), 0.01);
+  }
+
+  @Test
+  public void testDictionaryChangeInvalidatesCache() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 100);
+    Assert.assertEquals("cold", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+
+    dataHolder.addItem(new DictionaryItem("colt", 5.0, -1.0));
+    Assert.assertEquals("colt", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+
+    dataHolder.clear();
+    Assert.assertTrue(spellChecker.lookup("colt", Verbosity.TOP, 2).isEmpty());
+    Assert.assertEquals(0, spellChecker.getHitCount());
+  }
+
+  @Test
+  public void testChangeDuringLookupIsNotServed() throws SpellCheckException {
+    SymSpellCheck writingSpellCheck = new SymSpellCheck(dataHolder,
+        symSpellCheck.getStringDistance(), symSpellCheck.getSpellCheckSettings()) {
+      @Override
+      public LookupResult lookup(String phrase, Verbosity verbosity, double maxEditDistance,
+          LookupOptions lookupOptions) throws SpellCheckException {
+        LookupResult lookupResult = super.lookup(phrase, verbosity, maxEditDistance,
+            lookupOptions);
+        if (dataHolder.getItemFrequency("colt") == null) {
+          dataHolder.addItem(new DictionaryItem("colt", 5.0, -1.0));
+        }
+        return lookupResult;
+      }
+    };
+    CachingSpellChecker spellChecker = new CachingSpellChecker(writingSpellCheck, 100);
+    Assert.assertEquals("cold", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+    Assert.assertEquals(1, spellChecker.getCacheSize());
+
+    Assert.assertEquals("colt", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+    Assert.assertEquals(0, spellChecker.getHitCount());
+    Assert.assertEquals("colt", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+    Assert.assertEquals(1, spellChecker.getHitCount());
+  }
+
+  @Test
+  public void testSwapInvalidatesCache() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 100);
+    Assert.assertEquals("cold", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+
+    DataHolder swapped = new InMemoryDataHolder(symSpellCheck.getSpellCheckSettings(),
+        new Murmur3HashFunction());
+    swapped.addItem(new DictionaryItem("colt", 5.0, -1.0));
+    Assert.assertSame(dataHolder, spellChecker.swapDataHolder(swapped));
+    Assert.assertSame(swapped, spellChecker.getDataHolder());
+    Assert.assertSame(swapped, symSpellCheck.getDataHolder());
+    Assert.assertEquals(0, spellChecker.getCacheSize());
+    Assert.assertEquals("colt", spellChecker.lookup("colt", Verbosity.TOP, 2).get(0).getTerm());
+  }
+
+  @Test
+  public void testFrequentLookupsSurviveScan() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 10);
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    for (int i = 0; i < 50; i++) {
+      spellChecker.lookup("scan" + i, Verbosity.TOP, 2);
+    }
+    Assert.assertEquals(10, spellChecker.getCacheSize());
+
+    long hits = spellChecker.getHitCount();
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    Assert.assertEquals(hits + 1, spellChecker.getHitCount());
+  }
+
+  @Test
+  public void testStripedCacheStaysBounded() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 1000);
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    for (int i = 0; i < 5000; i++) {
+      spellChecker.lookup("scan" + i, Verbosity.TOP, 2);
+    }
+    Assert.assertTrue(spellChecker.getCacheSize() <= 1000);
+    Assert.assertTrue(spellChecker.getCacheSize() >= 900);
+
+    long hits = spellChecker.getHitCount();
+    spellChecker.lookup("wrold", Verbosity.TOP, 2);
+    Assert.assertEquals(hits + 1, spellChecker.getHitCount());
+  }
+}
@@ -0,0 +1,117 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import io.github.mightguy.spellcheck.symspell.impl.CompoundLookupStream;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestCompoundLookupStream {
+
+  private static final String[] PHRASES = {
+      "whereis th elove hehad dated forImuch of thepast who couqdn'tread in sixthgrade",
+      "the bigjest playrs in te strogsommer film slatew ith plety of funn",
+      "Can yu readthis messa ge despite thehorible sppelingmsitakes"
+  };
+
+  private static SymSpellCheck symSpellCheck;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .editFactor(1)
+        .build();
+    DataHolder dataHolder = new InMemoryDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+    ClassLoader classLoader = TestCompoundLookupStream.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    symSpellCheck = new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testSameAsLookupCompound() throws SpellCheckException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; text.length() < 20000; i++) {
+      text.append(PHRASES[i % PHRASES.length]).append(i % 2 == 0 ? "\n" : " \t ");
+    }
+    for (String phrase : new String[]{PHRASES[0], PHRASES[1], PHRASES[2], text.toString()}) {
+      Assert.assertEquals(symSpellCheck.lookupCompound(phrase.trim(), 2).get(0).getTerm(),
+          join(symSpellCheck.lookupCompoundStream(new StringReader(phrase), 2)));
+    }
+  }
+
+  @Test
+  public void testChunks() throws SpellCheckException {
+    List<String> lines = Arrays.asList(PHRASES);
+    Assert.assertEquals(symSpellCheck.lookupCompound(String.join(" ", lines), 2).get(0).getTerm(),
+        join(symSpellCheck.lookupCompoundStream(lines.iterator(), 2)));
+    Assert.assertEquals("", join(symSpellCheck.lookupCompoundStream(
+        Arrays.asList("", " ", "").iterator(), 2)));
+    Assert.assertEquals("", join(symSpellCheck.lookupCompoundStream(
+        Collections.<String>emptyIterator(), 2)));
+  }
+
+  @Test
+  public void testLongTermsAreCut() throws SpellCheckException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < CompoundLookupStream.MAX_TERM_LENGTH + 10; i++) {
+      text.append('x');
+    }
+    CompoundLookupStream stream = symSpellCheck.lookupCompoundStream(
+        new StringReader(text.toString()), 2);
+    Assert.assertEquals(CompoundLookupStream.MAX_TERM_LENGTH, stream.next().getTerm().length());
+    // the rest is a term of its own, which is corrected by itself
+    Assert.assertNotNull(stream.next());
+    Assert.assertNull(stream.next());
+  }
+
+  @Test
+  public void testEditDistanceAboveMaximum() {
+    try {
+      symSpellCheck.lookupCompoundStream(new StringReader("helo"), 3);
+      Assert.fail("the edit distance is above the maximum of the settings");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.LOOKUP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+
+  private static String join(CompoundLookupStream stream) throws SpellCheckException {
+    StringBuilder joined = new StringBuilder();
+    SuggestionItem part;
+    while ((part = stream.next()) != null) {
+      if (joined.length() > 0) {
+        joined.append(' ');
+      }
+      joined.append(part.getTerm());
+    }
+    return joined.toString();
+  }
+}
@@ -0,0 +1,72 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestCompoundTermLookups {
+
+  private static SymSpellCheck symSpellCheck;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .editFactor(1)
+        .build();
+    DataHolder dataHolder = new InMemoryDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+    ClassLoader classLoader = TestCompoundTermLookups.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    symSpellCheck = new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testRepeatedTermsAreLookedUpOnce() throws SpellCheckException {
+    symSpellCheck.resetStatistics();
+    SuggestionItem once = symSpellCheck.lookupCompound("helo wrold", 2).get(0);
+    long termLookups = symSpellCheck.getCompoundTermLookups();
+    Assert.assertEquals(0, symSpellCheck.getCompoundTermLookupReuses());
+
+    symSpellCheck.resetStatistics();
+    SuggestionItem twice = symSpellCheck.lookupCompound("helo wrold helo wrold", 2).get(0);
+    Assert.assertEquals(once.getTerm() + " " + once.getTerm(), twice.getTerm());
+    Assert.assertTrue(symSpellCheck.getCompoundTermLookupReuses() >= termLookups);
+
+    symSpellCheck.resetStatistics();
+    Assert.assertEquals(0, symSpellCheck.getCompoundTermLookups());
+  }
+
+  @Test
+  public void testReusedSuggestionsAreNotModified() throws SpellCheckException {
+    // the compound lookup adjusts the suggestions it picks, reused terms must not see that
+    String phrase = "the quik brwn fox the quik brwn fox";
+    Assert.assertEquals("the quick brown fox the quick brown fox",
+        symSpellCheck.lookupCompound(phrase, 2).get(0).getTerm());
+    Assert.assertEquals(symSpellCheck.lookupCompound(phrase, 2),
+        symSpellCheck.lookupCompound(phrase, 2));
+  }
+}
@@ -0,0 +1,312 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.Composition;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import io.github.mightguy.spellcheck.symspell.impl.ConcurrentDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestConcurrentDataHolder {
+
+  private static final String[] WORDS = {
+      "helo", "wrold", "teh", "qick", "brwn", "fxo", "jumsp", "ovr", "lazzy", "dgo", "spelling",
+      "knowlege", "acommodate", "a", "zz"
+  };
+
+  private static List<DictionaryItem> items;
+
+  @BeforeClass
+  public static void setup() throws IOException {
+    items = new ArrayList<>();
+    ClassLoader classLoader = TestConcurrentDataHolder.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        items.add(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    items.add(new DictionaryItem("the quick", 5.0, -1.0));
+  }
+
+  @Test
+  public void testSameAsInMemoryDataHolder() throws SpellCheckException {
+    SpellCheckSettings settings = newSettings();
+    DataHolder dataHolder = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    SpellCheckSettings inMemorySettings = newSettings();
+    DataHolder inMemory = new InMemoryDataHolder(inMemorySettings, new Murmur3HashFunction());
+    for (DictionaryItem item : items) {
+      Assert.assertEquals(inMemory.addItem(item), dataHolder.addItem(item));
+    }
+    dataHolder.addExclusionItem("acn", "can");
+    inMemory.addExclusionItem("acn", "can");
+
+    Assert.assertEquals(inMemory.getSize(), dataHolder.getSize());
+    Assert.assertEquals(inMemorySettings.getBigramCountMin(), settings.getBigramCountMin(), 0);
+    assertSameLookups(newSpellCheck(inMemory, inMemorySettings),
+        newSpellCheck(dataHolder, settings));
+  }
+
+  @Test
+  public void testLookupsWhileAdding() throws Exception {
+    SpellCheckSettings settings = newSettings();
+    DataHolder dataHolder = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    SymSpellCheck spellCheck = newSpellCheck(dataHolder, settings);
+    AtomicBoolean adding = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<Integer>> lookups = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        lookups.add(executor.submit(() -> {
+          int count = 0;
+          while (adding.get()) {
+            for (String word : WORDS) {
+              spellCheck.lookup(word, Verbosity.ALL, 2);
+              count++;
+            }
+          }
+          return count;
+        }));
+      }
+      Future<?> writer = executor.submit(() -> {
+        try {
+          for (DictionaryItem item : items) {
+            dataHolder.addItem(item);
+          }
+          dataHolder.clear();
+          for (DictionaryItem item : items) {
+            dataHolder.addItem(item);
+          }
+        } finally {
+          adding.set(false);
+        }
+        return null;
+      });
+      writer.get();
+      for (Future<Integer> lookup : lookups) {
+        Assert.assertTrue(lookup.get() > 0);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    SpellCheckSettings inMemorySettings = newSettings();
+    DataHolder inMemory = new InMemoryDataHolder(inMemorySettings, new Murmur3HashFunction());
+    inMemory.addItems(items);
+    assertSameLookups(newSpellCheck(inMemory, inMemorySettings), spellCheck);
+  }
+
+  @Test
+  public void testLookupsWhileSwapping() throws Exception {
+    SpellCheckSettings settings = newSettings();
+    DataHolder full = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    full.addItems(items);
+    DataHolder empty = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    SymSpellCheck spellCheck = newSpellCheck(full, settings);
+    List<SuggestionItem> expected = spellCheck.lookup("acommodate", Verbosity.ALL, 2);
+
+    AtomicInteger lookups = new AtomicInteger();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> lookup = executor.submit(() -> {
+        while (lookups.get() < 200) {
+          // a lookup sees either dictionary as a whole
+          List<SuggestionItem> suggestions = spellCheck.lookup("acommodate", Verbosity.ALL, 2);
+          Assert.assertTrue(suggestions.isEmpty() || suggestions.equals(expected));
+          lookups.incrementAndGet();
+        }
+        return null;
+      });
+      while (!lookup.isDone()) {
+        Assert.assertSame(full, spellCheck.swapDataHolder(empty));
+        Assert.assertSame(empty, spellCheck.swapDataHolder(full));
+      }
+      lookup.get();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testSwapDuringCompoundLookup() throws SpellCheckException {
+    SpellCheckSettings settings = newSettings();
+    DataHolder empty = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    SymSpellCheck[] swapping = new SymSpellCheck[1];
+    DataHolder full = new ConcurrentDataHolder(settings, new Murmur3HashFunction()) {
+      @Override
+      public Double getItemFrequency(String term) {
+        // the first term read swaps the dictionary away under the running call
+        if (swapping[0] != null) {
+          swapping[0].swapDataHolder(empty);
+          swapping[0] = null;
+        }
+        return super.getItemFrequency(term);
+      }
+    };
+    full.addItems(items);
+    SymSpellCheck spellCheck = newSpellCheck(full, settings);
+    List<SuggestionItem> expected = spellCheck.lookupCompound("teh qick brwnfxo", 2);
+    Composition expectedComposition = spellCheck.wordBreakSegmentation("thequickbrwon", 10, 2);
+
+    swapping[0] = spellCheck;
+    Assert.assertEquals(expected, spellCheck.lookupCompound("teh qick brwnfxo", 2));
+    spellCheck.swapDataHolder(full);
+    swapping[0] = spellCheck;
+    Assert.assertEquals(expectedComposition,
+        spellCheck.wordBreakSegmentation("thequickbrwon", 10, 2));
+    Assert.assertSame(empty, spellCheck.swapDataHolder(full));
+  }
+
+  @Test
+  public void testRemoveItems() throws SpellCheckException {
+    SpellCheckSettings settings = newSettings();
+    DataHolder dataHolder = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    dataHolder.addItems(items);
+    dataHolder.addItems(items);
+    for (DictionaryItem item : items) {
+      dataHolder.removeItem(item);
+    }
+    SymSpellCheck spellCheck = newSpellCheck(dataHolder, settings);
+    SpellCheckSettings inMemorySettings = newSettings();
+    DataHolder inMemory = new InMemoryDataHolder(inMemorySettings, new Murmur3HashFunction());
+    inMemory.addItems(items);
+    assertSameLookups(newSpellCheck(inMemory, inMemorySettings), spellCheck);
+
+    List<DictionaryItem> removed = items.subList(0, 1000);
+    for (DictionaryItem item : removed) {
+      Assert.assertEquals(item.getTerm().indexOf(' ') < 0, dataHolder.removeItem(item));
+    }
+    SpellCheckSettings remainingSettings = newSettings();
+    DataHolder remaining = new InMemoryDataHolder(remainingSettings, new Murmur3HashFunction());
+    remaining.addItems(items.subList(removed.size(), items.size()));
+    Assert.assertEquals(remaining.getSize(), dataHolder.getSize());
+    assertSameLookups(newSpellCheck(remaining, remainingSettings), spellCheck);
+
+    for (DictionaryItem item : items.subList(removed.size(), items.size())) {
+      dataHolder.removeItem(item);
+    }
+    Assert.assertEquals(0, dataHolder.getSize());
+    Assert.assertNull(dataHolder.getDeletes("helo"));
+  }
+
+  @Test
+  public void testRemoveBelowThreshold() throws SpellCheckException {
+    DataHolder dataHolder = new ConcurrentDataHolder(newSettings(), new Murmur3HashFunction());
+    dataHolder.addItem(new DictionaryItem("word", 10.0, -1.0));
+    Assert.assertTrue(dataHolder.removeItem(new DictionaryItem("word", 8.0, -1.0)));
+    Assert.assertNull(dataHolder.getItemFrequency("word"));
+    Assert.assertNull(dataHolder.getDeletes("wrd"));
+
+    // the remaining count of 2 is kept below the threshold of 4
+    Assert.assertTrue(dataHolder.addItem(new DictionaryItem("word", 3.0, -1.0)));
+    Assert.assertEquals(5.0, dataHolder.getItemFrequency("word"), 0);
+    Assert.assertFalse(dataHolder.removeItem(new DictionaryItem("unknown", 3.0, -1.0)));
+
+    // counts added in parts reach the threshold as a single count does
+    DataHolder inMemory = new InMemoryDataHolder(newSettings(), new Murmur3HashFunction());
+    Assert.assertFalse(inMemory.addItem(new DictionaryItem("word", 2.0, -1.0)));
+    Assert.assertTrue(inMemory.addItem(new DictionaryItem("word", 2.0, -1.0)));
+    Assert.assertEquals(4.0, inMemory.getItemFrequency("word"), 0);
+    try {
+      inMemory.removeItem(new DictionaryItem("word", 1.0, -1.0));
+      Assert.fail("removing items is not supported");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DELETE_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+
+  @Test
+  public void testAppendKeepsPublishedSuggestions() throws SpellCheckException {
+    DataHolder dataHolder = new ConcurrentDataHolder(newSettings(), new Murmur3HashFunction());
+    dataHolder.addItem(new DictionaryItem("cold", 21.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cool", 8.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("colt", 5.0, -1.0));
+    String[] buffer = new String[4];
+    Assert.assertEquals(3, dataHolder.getDeletes("col", 3, buffer));
+    String[] published = dataHolder.getDeletes("col");
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt"}, published);
+
+    dataHolder.addItem(new DictionaryItem("coal", 5.0, -1.0));
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt"}, published);
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt", "coal"},
+        dataHolder.getDeletes("col"));
+    Assert.assertTrue(dataHolder.removeItem(new DictionaryItem("cool", 8.0, -1.0)));
+    Assert.assertArrayEquals(new String[]{"cold", "colt", "coal"}, dataHolder.getDeletes("col"));
+
+    dataHolder.addItem(new DictionaryItem("colf", 5.0, -1.0));
+    dataHolder.freeze();
+    Assert.assertArrayEquals(new String[]{"cold", "colt", "coal", "colf"},
+        dataHolder.getDeletes("col"));
+    Assert.assertSame(dataHolder.getDeletes("col"), dataHolder.getDeletes("col"));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws SpellCheckException {
+    SpellCheckSettings settings = newSettings();
+    DataHolder dataHolder = new ConcurrentDataHolder(settings, new Murmur3HashFunction());
+    dataHolder.addItems(items);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    dataHolder.save(out);
+
+    SpellCheckSettings inMemorySettings = newSettings();
+    DataHolder inMemory = new InMemoryDataHolder(inMemorySettings, new Murmur3HashFunction());
+    inMemory.load(new ByteArrayInputStream(out.toByteArray()));
+    SpellCheckSettings loadedSettings = newSettings();
+    DataHolder loaded = new ConcurrentDataHolder(loadedSettings, new Murmur3HashFunction());
+    loaded.load(new ByteArrayInputStream(out.toByteArray()));
+
+    SymSpellCheck spellCheck = newSpellCheck(dataHolder, settings);
+    assertSameLookups(spellCheck, newSpellCheck(inMemory, inMemorySettings));
+    assertSameLookups(spellCheck, newSpellCheck(loaded, loadedSettings));
+  }
+
+  private static void assertSameLookups(SymSpellCheck expected, SymSpellCheck actual)
+      throws SpellCheckException {
+    for (String word : WORDS) {
+      Assert.assertEquals(word, expected.lookup(word, Verbosity.ALL, 2),
+          actual.lookup(word, Verbosity.ALL, 2));
+    }
+    Assert.assertEquals(expected.lookupCompound("teh qick brwn fxo", 2),
+        actual.lookupCompound("teh qick brwn fxo", 2));
+  }
+
+  private static SpellCheckSettings newSettings() {
+    return SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .countThreshold(4)
+        .build();
+  }
+
+  private static SymSpellCheck newSpellCheck(DataHolder dataHolder,
+      SpellCheckSettings spellCheckSettings) {
+    return new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+}
@@ -78,6 +78,25 @@ public class TestInMemoryDataHolder {
     Assert.assertFalse(dataHolder.addItem(new DictionaryItem("temp_data", -0.1, 0.0)));
   }
 
+  @Test
+  public void testDataHolderFreeze() throws SpellCheckException {
+    dataHolder.addItem(new DictionaryItem("cold", 21.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cool", 8.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("colt", 5.0, -1.0));
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt"}, dataHolder.getDeletes("col"));
+    // the first read trims the grown suggestions, later reads do not copy them
+    Assert.assertSame(dataHolder.getDeletes("col"), dataHolder.getDeletes("col"));
+
+    dataHolder.freeze();
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt"}, dataHolder.getDeletes("col"));
+    Assert.assertSame(dataHolder.getDeletes("col"), dataHolder.getDeletes("col"));
+
+    dataHolder.addItem(new DictionaryItem("coal", 5.0, -1.0));
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt", "coal"},
+        dataHolder.getDeletes("col"));
+    Assert.assertSame(dataHolder.getDeletes("col"), dataHolder.getDeletes("col"));
+  }
+
   @After
   public void clear() throws SpellCheckException {
     dataHolder.clear();
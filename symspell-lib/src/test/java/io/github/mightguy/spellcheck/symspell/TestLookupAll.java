@@ -0,0 +1,103 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestLookupAll {
+
+  private static SymSpellCheck spellChecker;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .build();
+    DataHolder dataHolder = new InMemoryDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+    ClassLoader classLoader = TestLookupAll.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    dataHolder.freeze();
+    spellChecker = new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testLookupAllMatchesLookup() throws Exception {
+    List<String> words = new ArrayList<>();
+    ClassLoader classLoader = TestLookupAll.class.getClassLoader();
+    File file = new File(classLoader.getResource("noisy_query_en_1000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        words.add(line.split("\\s+")[0]);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Map<String, List<SuggestionItem>> results = spellChecker
+          .lookupAll(words, Verbosity.CLOSEST, 2, executor);
+      for (String word : words) {
+        Assert.assertEquals(word, spellChecker.lookup(word, Verbosity.CLOSEST, 2),
+            results.get(word));
+      }
+      Assert.assertEquals(results, spellChecker.lookupAll(words, Verbosity.CLOSEST, 2));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testLookupAllDeduplicatesInInputOrder() throws SpellCheckException {
+    Map<String, List<SuggestionItem>> results = spellChecker
+        .lookupAll(Arrays.asList("wrold", "helo", "wrold", "helo", "the"), Verbosity.TOP, 2);
+    Assert.assertEquals(Arrays.asList("wrold", "helo", "the"),
+        new ArrayList<>(results.keySet()));
+    Assert.assertEquals("world", results.get("wrold").get(0).getTerm());
+    Assert.assertTrue(spellChecker.lookupAll(Collections.emptyList(), Verbosity.TOP, 2)
+        .isEmpty());
+  }
+
+  @Test
+  public void testLookupAllPropagatesLookupError() {
+    try {
+      spellChecker.lookupAll(Arrays.asList("helo", "wrold"), Verbosity.TOP, 3);
+      Assert.fail("edit distance above the max should fail");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.LOOKUP_ERROR,
+          ex.getSpellCheckExceptionCode());
+    }
+  }
+}
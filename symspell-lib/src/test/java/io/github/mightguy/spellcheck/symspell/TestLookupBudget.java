@@ -0,0 +1,112 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+import io.github.mightguy.spellcheck.symspell.common.LookupResult;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.CachingSpellChecker;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestLookupBudget {
+
+  private static final LookupOptions EXPIRED = LookupOptions.builder().budgetNanos(1).build();
+
+  private static SymSpellCheck symSpellCheck;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .editFactor(1)
+        .build();
+    DataHolder dataHolder = new InMemoryDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+    ClassLoader classLoader = TestLookupBudget.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    symSpellCheck = new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testUnboundedLookupIsComplete() throws SpellCheckException {
+    for (Verbosity verbosity : Verbosity.values()) {
+      LookupResult lookupResult = symSpellCheck.lookup("knowlege", verbosity, 2,
+          LookupOptions.withBudget(1, TimeUnit.MINUTES));
+      Assert.assertFalse(lookupResult.isTruncated());
+      Assert.assertEquals(symSpellCheck.lookup("knowlege", verbosity, 2),
+          lookupResult.getSuggestions());
+      Assert.assertEquals(symSpellCheck.lookup("knowlege", verbosity, 2),
+          symSpellCheck.lookup("knowlege", verbosity, 2, LookupOptions.DEFAULT)
+              .getSuggestions());
+    }
+
+    LookupResult compound = symSpellCheck.lookupCompound("the quik brwn fox", 2, true,
+        LookupOptions.DEFAULT);
+    Assert.assertFalse(compound.isTruncated());
+    Assert.assertEquals(symSpellCheck.lookupCompound("the quik brwn fox", 2, true),
+        compound.getSuggestions());
+  }
+
+  @Test
+  public void testExpiredLookupIsTruncated() throws SpellCheckException {
+    LookupResult lookupResult = symSpellCheck.lookup("knowlege", Verbosity.ALL, 2, EXPIRED);
+    Assert.assertTrue(lookupResult.isTruncated());
+    Assert.assertTrue(lookupResult.getSuggestions().size()
+        < symSpellCheck.lookup("knowlege", Verbosity.ALL, 2).size());
+
+    // known words are found before any candidate is expanded
+    lookupResult = symSpellCheck.lookup("knowledge", Verbosity.TOP, 2, EXPIRED);
+    Assert.assertFalse(lookupResult.isTruncated());
+    Assert.assertEquals("knowledge", lookupResult.getSuggestions().get(0).getTerm());
+  }
+
+  @Test
+  public void testExpiredCompoundLookupKeepsUncorrectedTerms() throws SpellCheckException {
+    Assert.assertEquals("the quick brown fox",
+        symSpellCheck.lookupCompound("the quik brwn fox", 2, true).get(0).getTerm());
+
+    LookupResult lookupResult = symSpellCheck.lookupCompound("the quik brwn fox", 2, true,
+        EXPIRED);
+    Assert.assertTrue(lookupResult.isTruncated());
+    Assert.assertEquals(1, lookupResult.getSuggestions().size());
+    Assert.assertEquals("the quik brwn fox", lookupResult.getSuggestions().get(0).getTerm());
+  }
+
+  @Test
+  public void testTruncatedLookupIsNotCached() throws SpellCheckException {
+    CachingSpellChecker spellChecker = new CachingSpellChecker(symSpellCheck, 100);
+    Assert.assertTrue(spellChecker.lookup("knowlege", Verbosity.TOP, 2, EXPIRED).isTruncated());
+    Assert.assertEquals(0, spellChecker.getCacheSize());
+
+    Assert.assertFalse(spellChecker.lookup("knowlege", Verbosity.TOP, 2, LookupOptions.DEFAULT)
+        .isTruncated());
+    Assert.assertEquals(1, spellChecker.getCacheSize());
+    Assert.assertEquals("knowledge",
+        spellChecker.lookup("knowlege", Verbosity.TOP, 2, EXPIRED).getSuggestions().get(0)
+            .getTerm());
+    Assert.assertEquals(1, spellChecker.getHitCount());
+  }
+}
@@ -0,0 +1,116 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestLookupContextReuse {
+
+  private static final String[] WORDS = {"helo", "wrold", "bigjest", "playrs", "plety",
+      "abolution", "univrsity", "kniwledge", "xqzvkj", "a", "", "internationalizationn",
+      "transportatoin", "the", "mississipi", "aaaaaaa", "baloon", "aaddress"};
+
+  private static SpellCheckSettings spellCheckSettings;
+  private static DataHolder dataHolder;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .editFactor(1)
+        .build();
+    dataHolder = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
+    ClassLoader classLoader = TestLookupContextReuse.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    dataHolder.freeze();
+  }
+
+  @Test
+  public void testLookupsDoNotDependOnPreviousLookups() throws SpellCheckException {
+    for (Verbosity verbosity : Verbosity.values()) {
+      List<List<SuggestionItem>> expected = new ArrayList<>();
+      for (String word : WORDS) {
+        expected.add(spellChecker().lookup(word, verbosity, 2));
+      }
+      SymSpellCheck reused = spellChecker();
+      for (int round = 0; round < 2; round++) {
+        for (int i = WORDS.length - 1; i >= 0; i--) {
+          Assert.assertEquals(WORDS[i], expected.get(i), reused.lookup(WORDS[i], verbosity, 2));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRepeatedCharsYieldDistinctDeletes() throws SpellCheckException {
+    SymSpellCheck spellChecker = spellChecker();
+    Assert.assertEquals("balloon",
+        spellChecker.lookup("baloon", Verbosity.TOP, 2).get(0).getTerm());
+    Assert.assertEquals("address",
+        spellChecker.lookup("aaddress", Verbosity.TOP, 2).get(0).getTerm());
+    Assert.assertEquals("sees", spellChecker.lookup("ssees", Verbosity.TOP, 1).get(0).getTerm());
+  }
+
+  @Test
+  public void testConcurrentLookups() throws Exception {
+    SymSpellCheck spellChecker = spellChecker();
+    List<List<SuggestionItem>> expected = new ArrayList<>();
+    for (String word : WORDS) {
+      expected.add(spellChecker.lookup(word, Verbosity.CLOSEST, 2));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < WORDS.length; i++) {
+              if (!expected.get(i).equals(spellChecker.lookup(WORDS[i], Verbosity.CLOSEST, 2))) {
+                return false;
+              }
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        Assert.assertTrue(future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static SymSpellCheck spellChecker() {
+    return new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+}
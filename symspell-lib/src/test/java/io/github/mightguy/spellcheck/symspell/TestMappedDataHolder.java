@@ -0,0 +1,253 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import io.github.mightguy.spellcheck.symspell.impl.MappedDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.PrimitiveDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class TestMappedDataHolder {
+
+  @ClassRule
+  public static TemporaryFolder folder = new TemporaryFolder();
+
+  static PrimitiveDataHolder source;
+  static MappedDataHolder dataHolder;
+  static SpellCheckSettings spellCheckSettings;
+  static Path snapshot;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .prefixLength(7)
+        .build();
+    source = new PrimitiveDataHolder(spellCheckSettings, new Murmur3HashFunction());
+
+    ClassLoader classLoader = TestMappedDataHolder.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        source.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    source.addItem(new DictionaryItem("cold war", 4000.0, -1.0));
+    source.addExclusionItem("nasa", "NASA");
+
+    snapshot = folder.newFile("dictionary.snapshot").toPath();
+    MappedDataHolder.write(source, snapshot);
+    dataHolder = new MappedDataHolder(snapshot, spellCheckSettings, new Murmur3HashFunction());
+  }
+
+  @Test
+  public void testDictionaryContent() throws SpellCheckException {
+    Assert.assertEquals(source.getSize(), dataHolder.getSize());
+    Assert.assertEquals(source.getItemFrequency("the"), dataHolder.getItemFrequency("the"));
+    Assert.assertNull(dataHolder.getItemFrequency("qwzx"));
+    Assert.assertEquals(4000.0, dataHolder.getItemFrequencyBiGram("cold war"), 0.01);
+    Assert.assertNull(dataHolder.getItemFrequencyBiGram("warm war"));
+    Assert.assertEquals("NASA", dataHolder.getExclusionItem("nasa"));
+    Assert.assertNull(dataHolder.getExclusionItem("esa"));
+    Assert.assertArrayEquals(source.getDeletes("hel"), dataHolder.getDeletes("hel"));
+    Assert.assertNull(dataHolder.getDeletes("qwzxqwzx"));
+
+    String[] suggestions = source.getDeletes("hel");
+    String[] buffer = new String[suggestions.length];
+    Assert.assertEquals(suggestions.length, dataHolder.getDeletes("help", 3, buffer));
+    Assert.assertArrayEquals(suggestions, buffer);
+    Assert.assertEquals(0, dataHolder.getDeletes("qwzxqwzx", 8, buffer));
+  }
+
+  @Test
+  public void testLookupMatchesSource() throws SpellCheckException {
+    WeightedDamerauLevenshteinDistance distance =
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null);
+    SymSpellCheck expected = new SymSpellCheck(source, distance, spellCheckSettings);
+    SymSpellCheck actual = new SymSpellCheck(dataHolder, distance, spellCheckSettings);
+    for (String word : new String[]{"helo", "wrold", "bigjest", "playrs", "ith", "plety"}) {
+      for (Verbosity verbosity : Verbosity.values()) {
+        List<SuggestionItem> expectedItems = expected.lookup(word, verbosity, 2);
+        List<SuggestionItem> actualItems = actual.lookup(word, verbosity, 2);
+        Assert.assertEquals(word + " " + verbosity, expectedItems, actualItems);
+      }
+    }
+  }
+
+  @Test
+  public void testReadOnly() throws SpellCheckException {
+    DictionaryItem item = new DictionaryItem("word", 12.0, -1.0);
+    assertReadOnly(() -> dataHolder.addItem(item));
+    assertReadOnly(() -> dataHolder.addItems(Collections.singletonList(item)));
+    assertReadOnly(() -> dataHolder.removeItem(item));
+    assertReadOnly(() -> dataHolder.clear());
+    assertReadOnly(() -> dataHolder.load(new ByteArrayInputStream(new byte[0])));
+    assertReadOnly(() -> dataHolder.addExclusionItem("acn", "can"));
+    assertReadOnly(() -> dataHolder.addExclusionItems(Collections.singletonMap("acn", "can")));
+    Assert.assertEquals(source.getSize(), dataHolder.getSize());
+    Assert.assertNull(dataHolder.getExclusionItem("acn"));
+  }
+
+  private static void assertReadOnly(Mutation mutation) throws SpellCheckException {
+    try {
+      mutation.run();
+      Assert.fail("Mapped dictionary should be read only");
+    } catch (UnsupportedOperationException ex) {
+      Assert.assertEquals("Mapped dictionary is read only", ex.getMessage());
+    }
+  }
+
+  private interface Mutation {
+
+    void run() throws SpellCheckException;
+  }
+
+  @Test
+  public void testHashFunctionMismatch() {
+    HashFunction other = new HashFunction() {
+      @Override
+      public long hash(byte[] bytes) {
+        return bytes.length;
+      }
+
+      @Override
+      public Long hash(String data) {
+        return (long) data.length();
+      }
+    };
+    try {
+      new MappedDataHolder(snapshot, spellCheckSettings, other);
+      Assert.fail("Snapshot should not open with a different hash function");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+
+  @Test
+  public void testHashValuesMismatch() throws IOException, SpellCheckException {
+    // the same hash function class, returning other values than when the snapshot was written
+    PrimitiveDataHolder written = new PrimitiveDataHolder(spellCheckSettings,
+        new SeededHashFunction(1));
+    written.addItem(new DictionaryItem("hello", 10.0, -1.0));
+    Path file = folder.newFile("seeded.snapshot").toPath();
+    MappedDataHolder.write(written, file);
+    Assert.assertEquals(10.0, new MappedDataHolder(file, spellCheckSettings,
+        new SeededHashFunction(1)).getItemFrequency("hello"), 0.01);
+    try {
+      new MappedDataHolder(file, spellCheckSettings, new SeededHashFunction(2));
+      Assert.fail("Snapshot should not open with other hash values");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+
+  @Test
+  public void testSettingsMismatch() {
+    SpellCheckSettings other = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .prefixLength(5)
+        .build();
+    try {
+      new MappedDataHolder(snapshot, other, new Murmur3HashFunction());
+      Assert.fail("Snapshot should not open with a different prefix length");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+    other = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .prefixLength(7)
+        .keySplitRegex(",")
+        .build();
+    try {
+      new MappedDataHolder(snapshot, other, new Murmur3HashFunction());
+      Assert.fail("Snapshot should not open with a different key split regex");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+
+  @Test
+  public void testRewriteKeepsMappedSnapshot() throws IOException, SpellCheckException {
+    SpellCheckSettings settings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .prefixLength(7)
+        .build();
+    Path file = folder.newFolder("rewrite").toPath().resolve("dictionary.snapshot");
+    PrimitiveDataHolder first = new PrimitiveDataHolder(settings, new Murmur3HashFunction());
+    first.addItem(new DictionaryItem("hello", 10.0, -1.0));
+    MappedDataHolder.write(first, file);
+    MappedDataHolder mapped = new MappedDataHolder(file, settings, new Murmur3HashFunction());
+
+    PrimitiveDataHolder second = new PrimitiveDataHolder(settings, new Murmur3HashFunction());
+    second.addItem(new DictionaryItem("world", 20.0, -1.0));
+    second.addItem(new DictionaryItem("words", 30.0, -1.0));
+    MappedDataHolder.write(second, file);
+
+    Assert.assertEquals(1, mapped.getSize());
+    Assert.assertEquals(10.0, mapped.getItemFrequency("hello"), 0.01);
+    Assert.assertNull(mapped.getItemFrequency("world"));
+    MappedDataHolder reopened = new MappedDataHolder(file, settings, new Murmur3HashFunction());
+    Assert.assertEquals(2, reopened.getSize());
+    Assert.assertNull(reopened.getItemFrequency("hello"));
+    Assert.assertEquals(20.0, reopened.getItemFrequency("world"), 0.01);
+    Assert.assertEquals(1, file.getParent().toFile().list().length);
+  }
+
+  private static final class SeededHashFunction implements HashFunction {
+
+    private final long seed;
+
+    SeededHashFunction(long seed) {
+      this.seed = seed;
+    }
+
+    @Override
+    public long hash(byte[] bytes) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long hash(String data) {
+      return hash(data, 0, data.length());
+    }
+
+    @Override
+    public long hash(CharSequence data, int from, int to) {
+      return new Murmur3HashFunction().hash(data, from, to) * 31 + seed;
+    }
+  }
+
+  @Test
+  public void testInvalidFile() throws IOException {
+    try {
+      new MappedDataHolder(folder.newFile("empty.snapshot").toPath(), spellCheckSettings,
+          new Murmur3HashFunction());
+      Assert.fail("Empty file is not a snapshot");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import com.sangupta.murmur.Murmur3;
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.api.HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.HashAlgorithm;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3x64HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.PrimitiveDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TestMurmur3HashFunction {
+
+  private final Murmur3HashFunction hashFunction = new Murmur3HashFunction();
+
+  @Test
+  public void testCharHashMatchesUtf16Bytes() {
+    for (String word : new String[]{"", "a", "ab", "abc", "hello", "straße", "日本語テキスト!"}) {
+      byte[] bytes = word.getBytes(StandardCharsets.UTF_16LE);
+      Assert.assertEquals(word, Murmur3.hash_x86_32(bytes, bytes.length, 0x7f3a21eaL),
+          hashFunction.hash(word, 0, word.length()));
+    }
+  }
+
+  @Test
+  public void testStringHashKeepsPublishedValues() {
+    HashFunction x64 = new Murmur3x64HashFunction();
+    for (String word : new String[]{"", "a", "hello", "straße", "日本語テキスト!"}) {
+      byte[] bytes = word.getBytes();
+      Assert.assertEquals(word, Long.valueOf(Murmur3.hash_x86_32(bytes, bytes.length,
+          0x7f3a21eaL)), hashFunction.hash(word));
+      Assert.assertEquals(word, Long.valueOf(x64.hash(word, 0, word.length())), x64.hash(word));
+    }
+  }
+
+  @Test
+  public void testX64CharHashMatchesUtf16Bytes() {
+    Murmur3x64HashFunction x64 = new Murmur3x64HashFunction();
+    for (String word : new String[]{"", "a", "abcd", "abcde", "abcdefgh", "abcdefghi",
+        "internationalization", "straße!"}) {
+      byte[] bytes = word.getBytes(StandardCharsets.UTF_16LE);
+      Assert.assertEquals(word, Murmur3.hash_x64_128(bytes, bytes.length, 0x7f3a21eaL)[0],
+          x64.hash(word, 0, word.length()));
+    }
+    StringBuilder buffer = new StringBuilder("xxinternationalyy");
+    Assert.assertEquals(x64.hash("international", 0, 13), x64.hash(buffer, 2, 15));
+  }
+
+  @Test
+  public void testLongHashRejectsFewerCollisions() throws IOException, SpellCheckException {
+    // a 16 bit hash stands in for a 32 bit hash over a much larger dictionary
+    HashFunction narrowHash = new HashFunction() {
+      @Override
+      public long hash(byte[] bytes) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Long hash(String data) {
+        return hash(data, 0, data.length());
+      }
+
+      @Override
+      public long hash(CharSequence data, int from, int to) {
+        return new Murmur3HashFunction().hash(data, from, to) & 0xFFFF;
+      }
+    };
+    SymSpellCheck narrow = spellChecker(narrowHash);
+    SymSpellCheck wide = spellChecker(HashAlgorithm.MURMUR3_64.newHashFunction());
+    for (String word : new String[]{"helo", "wrold", "bigjest", "playrs", "plety", "abolution",
+        "univrsity", "kniwledge", "xqzvkj"}) {
+      Assert.assertEquals(word, narrow.lookup(word, Verbosity.CLOSEST, 3),
+          wide.lookup(word, Verbosity.CLOSEST, 3));
+    }
+    Assert.assertTrue(narrow.getCollisionRejections() > 0);
+    Assert.assertEquals(0, wide.getCollisionRejections());
+
+    narrow.resetStatistics();
+    wide.resetStatistics();
+    for (String word : new String[]{"helo", "wrold", "bigjest", "playrs", "plety"}) {
+      // the order of equal ranked suggestions follows the postings, so compare as sets
+      Assert.assertEquals(word, new HashSet<>(narrow.lookup(word, Verbosity.ALL, 3)),
+          new HashSet<>(wide.lookup(word, Verbosity.ALL, 3)));
+    }
+    Assert.assertTrue(narrow.getDistanceComputations() > wide.getDistanceComputations());
+
+    narrow.resetStatistics();
+    Assert.assertEquals(0, narrow.getCollisionRejections());
+  }
+
+  private SymSpellCheck spellChecker(HashFunction hashFunction)
+      throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(3)
+        .editFactor(1)
+        .build();
+    DataHolder dataHolder = new PrimitiveDataHolder(spellCheckSettings, hashFunction);
+    ClassLoader classLoader = TestMurmur3HashFunction.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    return new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testCharHashOfSlice() {
+    StringBuilder buffer = new StringBuilder("xxhelloyy");
+    Assert.assertEquals(hashFunction.hash("hello", 0, 5), hashFunction.hash(buffer, 2, 7));
+    Assert.assertNotEquals(hashFunction.hash("hello", 0, 5), hashFunction.hash(buffer, 2, 6));
+  }
+}
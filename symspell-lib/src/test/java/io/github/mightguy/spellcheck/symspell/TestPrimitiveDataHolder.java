@@ -0,0 +1,315 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SpellHelper;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.PrimitiveDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestPrimitiveDataHolder {
+
+  static PrimitiveDataHolder dataHolder;
+
+  @BeforeClass
+  public static void setup() {
+
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .countThreshold(4)
+        .deletionWeight(0.8f)
+        .insertionWeight(1.01f)
+        .replaceWeight(0.9f)
+        .maxEditDistance(2)
+        .transpositionWeight(0.7f)
+        .topK(5)
+        .prefixLength(10)
+        .verbosity(Verbosity.ALL).build();
+
+    dataHolder = new PrimitiveDataHolder(spellCheckSettings, new Murmur3HashFunction());
+  }
+
+  @Test
+  public void testDataHolderAdd() throws SpellCheckException {
+    dataHolder.addItem(new DictionaryItem("word", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("word", 23.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cold", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cool", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("war", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("dummy", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("delta", 12.0, -1.0));
+
+    Assert.assertEquals(6, dataHolder.getSize());
+    Assert.assertEquals(35.0, dataHolder.getItemFrequency("word"), 0.01);
+  }
+
+  @Test
+  public void testDataHolderGetDeletes() throws SpellCheckException {
+    dataHolder.addItem(new DictionaryItem("word", 12.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cold", 21.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cool", 3.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("tool", 3.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("tool", 2.0, -1.0));
+
+    Assert.assertNull(dataHolder.getItemFrequency("cool"));
+    Assert.assertEquals(5.0, dataHolder.getItemFrequency("tool"), 0.01);
+
+    dataHolder.addItem(new DictionaryItem("cool", 8.0, -1.0));
+
+    Assert.assertEquals(Double.valueOf(11.0), dataHolder.getItemFrequency("cool"));
+    Assert.assertArrayEquals(new String[]{"word"}, dataHolder.getDeletes("wod"));
+    Assert.assertArrayEquals(new String[]{"cold", "cool"}, dataHolder.getDeletes("col"));
+    Assert.assertNull(dataHolder.getDeletes("xyz"));
+
+    String[] buffer = new String[1];
+    Assert.assertEquals(2, dataHolder.getDeletes("col", 3, buffer));
+    Assert.assertNull(buffer[0]);
+    buffer = new String[3];
+    Assert.assertEquals(2, dataHolder.getDeletes("cold", 3, buffer));
+    Assert.assertArrayEquals(new String[]{"cold", "cool", null}, buffer);
+    Assert.assertEquals(0, dataHolder.getDeletes("xyz", 3, buffer));
+    Assert.assertFalse(dataHolder.addItem(new DictionaryItem("temp_data", 0.1, 0.0)));
+  }
+
+  @Test
+  public void testDataHolderFreeze() throws SpellCheckException {
+    dataHolder.addItem(new DictionaryItem("cold", 21.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cool", 8.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("colt", 5.0, -1.0));
+    dataHolder.freeze();
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt"}, dataHolder.getDeletes("col"));
+
+    dataHolder.addItem(new DictionaryItem("coal", 5.0, -1.0));
+    Assert.assertArrayEquals(new String[]{"cold", "cool", "colt", "coal"},
+        dataHolder.getDeletes("col"));
+  }
+
+  @Test
+  public void testDataHolderBigramAndClear() throws SpellCheckException {
+    dataHolder.addItem(new DictionaryItem("cold war", 40.0, -1.0));
+    dataHolder.addItem(new DictionaryItem("cold", 21.0, -1.0));
+    Assert.assertEquals(40.0, dataHolder.getItemFrequencyBiGram("cold war"), 0.01);
+    Assert.assertNull(dataHolder.getItemFrequency("cold war"));
+    Assert.assertEquals(1, dataHolder.getSize());
+
+    dataHolder.clear();
+    Assert.assertEquals(0, dataHolder.getSize());
+    Assert.assertNull(dataHolder.getDeletes("col"));
+    Assert.assertNull(dataHolder.getItemFrequency("cold"));
+  }
+
+  @Test
+  public void testLookupMatchesInMemoryDataHolder() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .prefixLength(7)
+        .build();
+    WeightedDamerauLevenshteinDistance distance =
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null);
+    DataHolder inMemory = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
+    DataHolder primitive = new PrimitiveDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+
+    ClassLoader classLoader = TestPrimitiveDataHolder.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        DictionaryItem item = new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0);
+        inMemory.addItem(item);
+        primitive.addItem(item);
+      }
+    }
+    Assert.assertEquals(inMemory.getSize(), primitive.getSize());
+
+    SymSpellCheck expected = new SymSpellCheck(inMemory, distance, spellCheckSettings);
+    SymSpellCheck actual = new SymSpellCheck(primitive, distance, spellCheckSettings);
+    for (String word : new String[]{"helo", "wrold", "bigjest", "playrs", "ith", "plety"}) {
+      for (Verbosity verbosity : Verbosity.values()) {
+        List<SuggestionItem> expectedItems = expected.lookup(word, verbosity, 2);
+        List<SuggestionItem> actualItems = actual.lookup(word, verbosity, 2);
+        Assert.assertEquals(word + " " + verbosity, expectedItems, actualItems);
+      }
+    }
+  }
+
+  @Test
+  public void testAddItemsMatchesAddItem() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .prefixLength(7)
+        .countThreshold(10)
+        .build();
+    PrimitiveDataHolder sequential = new PrimitiveDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+    PrimitiveDataHolder parallel = new PrimitiveDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+
+    List<DictionaryItem> items = new ArrayList<>();
+    ClassLoader classLoader = TestPrimitiveDataHolder.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        items.add(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    items.add(new DictionaryItem("cold war", 40.0, -1.0));
+    items.add(new DictionaryItem("Zyx", 6.0, -1.0));
+    items.add(new DictionaryItem("zyx", 6.0, -1.0));
+    int added = 0;
+    for (DictionaryItem item : items) {
+      added += sequential.addItem(item) ? 1 : 0;
+    }
+    parallel.addItem(items.get(0));
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      added -= parallel.addItems(items.subList(1, items.size()), pool) + 1;
+    } finally {
+      pool.shutdown();
+    }
+
+    Assert.assertEquals(0, added);
+    Assert.assertEquals(sequential.getSize(), parallel.getSize());
+    Assert.assertEquals(12.0, parallel.getItemFrequency("zyx"), 0.01);
+    Assert.assertEquals(40.0, parallel.getItemFrequencyBiGram("cold war"), 0.01);
+    for (DictionaryItem item : items) {
+      Assert.assertEquals(sequential.getItemFrequency(item.getTerm()),
+          parallel.getItemFrequency(item.getTerm()));
+      for (String delete : SpellHelper.getEditDeletes(item.getTerm(), 2, 7, 0.3)) {
+        Assert.assertArrayEquals(delete, sequential.getDeletes(delete),
+            parallel.getDeletes(delete));
+      }
+    }
+  }
+
+  @Test
+  public void testAddItemsBuildsSameIndexOnLargeDictionary()
+      throws IOException, SpellCheckException {
+    List<DictionaryItem> items = new ArrayList<>();
+    ClassLoader classLoader = TestPrimitiveDataHolder.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_82_765.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        items.add(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    PrimitiveDataHolder sequential = new PrimitiveDataHolder(
+        SpellCheckSettings.builder().maxEditDistance(2).prefixLength(7).build(),
+        new Murmur3HashFunction());
+    for (DictionaryItem item : items) {
+      sequential.addItem(item);
+    }
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    sequential.save(expected);
+
+    for (int parallelism : new int[]{1, 3, 16}) {
+      PrimitiveDataHolder parallel = new PrimitiveDataHolder(
+          SpellCheckSettings.builder().maxEditDistance(2).prefixLength(7).build(),
+          new Murmur3HashFunction());
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        Assert.assertEquals(sequential.getSize(), parallel.addItems(items, pool));
+      } finally {
+        pool.shutdown();
+      }
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      parallel.save(actual);
+      Assert.assertArrayEquals("parallelism " + parallelism, expected.toByteArray(),
+          actual.toByteArray());
+    }
+  }
+
+  @Test
+  public void testSaveAndLoad() throws SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .countThreshold(4)
+        .build();
+    DataHolder inMemory = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
+    inMemory.addItem(new DictionaryItem("word", 12.0, -1.0));
+    inMemory.addItem(new DictionaryItem("cold", 21.0, -1.0));
+    inMemory.addItem(new DictionaryItem("cool", 3.0, -1.0));
+    inMemory.addItem(new DictionaryItem("cold war", 40.0, -1.0));
+    inMemory.addExclusionItem("nasa", "NASA");
+    ByteArrayOutputStream inMemoryIndex = new ByteArrayOutputStream();
+    inMemory.save(inMemoryIndex);
+
+    SpellCheckSettings loadSettings = SpellCheckSettings.builder()
+        .countThreshold(4)
+        .build();
+    DataHolder primitive = new PrimitiveDataHolder(loadSettings, new Murmur3HashFunction());
+    primitive.load(new ByteArrayInputStream(inMemoryIndex.toByteArray()));
+    ByteArrayOutputStream primitiveIndex = new ByteArrayOutputStream();
+    primitive.save(primitiveIndex);
+    DataHolder loaded = new InMemoryDataHolder(loadSettings, new Murmur3HashFunction());
+    loaded.load(new ByteArrayInputStream(primitiveIndex.toByteArray()));
+
+    for (DataHolder holder : new DataHolder[]{primitive, loaded}) {
+      Assert.assertEquals(2, holder.getSize());
+      Assert.assertEquals(12.0, holder.getItemFrequency("word"), 0.01);
+      Assert.assertNull(holder.getItemFrequency("cool"));
+      Assert.assertEquals(40.0, holder.getItemFrequencyBiGram("cold war"), 0.01);
+      Assert.assertEquals("NASA", holder.getExclusionItem("nasa"));
+      Assert.assertArrayEquals(new String[]{"cold"}, holder.getDeletes("col"));
+      Assert.assertArrayEquals(new String[]{"word"}, holder.getDeletes("wod"));
+    }
+    Assert.assertEquals(40.0, loadSettings.getBigramCountMin(), 0.01);
+
+    primitive.addItem(new DictionaryItem("cool", 2.0, -1.0));
+    Assert.assertEquals(5.0, primitive.getItemFrequency("cool"), 0.01);
+    Assert.assertArrayEquals(new String[]{"cold", "cool"}, primitive.getDeletes("col"));
+  }
+
+  @Test
+  public void testLoadWithDifferentSettings() throws SpellCheckException {
+    dataHolder.addItem(new DictionaryItem("word", 12.0, -1.0));
+    ByteArrayOutputStream index = new ByteArrayOutputStream();
+    dataHolder.save(index);
+    DataHolder other = new PrimitiveDataHolder(SpellCheckSettings.builder().build(),
+        new Murmur3HashFunction());
+    try {
+      other.load(new ByteArrayInputStream(index.toByteArray()));
+      Assert.fail("Index built with other settings should not load");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+    try {
+      other.load(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+      Assert.fail("Truncated index should not load");
+    } catch (SpellCheckException ex) {
+      Assert.assertEquals(SpellCheckExceptionCode.DUMP_ERROR, ex.getSpellCheckExceptionCode());
+    }
+  }
+
+  @After
+  public void clear() throws SpellCheckException {
+    dataHolder.clear();
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
+import io.github.mightguy.spellcheck.symspell.common.Verbosity;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestTopKLookup {
+
+  private static final String[] WORDS = {"helo", "wrold", "bigjest", "playrs", "plety",
+      "abolution", "univrsity", "kniwledge", "xqzvkj", "a", "the", "tha", "te", "baloon",
+      "aaddress", "transportatoin"};
+
+  private static DataHolder dataHolder;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    dataHolder = new InMemoryDataHolder(settings(Integer.MAX_VALUE), new Murmur3HashFunction());
+    ClassLoader classLoader = TestTopKLookup.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    dataHolder.freeze();
+  }
+
+  @Test
+  public void testTopKMatchesSortedUnboundedLookup() throws SpellCheckException {
+    SymSpellCheck unbounded = spellChecker(Integer.MAX_VALUE);
+    for (int topK : new int[]{1, 3, 5}) {
+      SymSpellCheck bounded = spellChecker(topK);
+      for (Verbosity verbosity : new Verbosity[]{Verbosity.ALL, Verbosity.CLOSEST}) {
+        for (double editDistance : new double[]{1, 2}) {
+          for (String word : WORDS) {
+            List<SuggestionItem> expected = new ArrayList<>(
+                unbounded.lookup(word, verbosity, editDistance));
+            Collections.sort(expected);
+            expected = expected.subList(0, Math.min(topK, expected.size()));
+            Assert.assertEquals(word + " " + verbosity + " " + topK + " " + editDistance,
+                expected, bounded.lookup(word, verbosity, editDistance));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTopKDoesNotLimitTop() throws SpellCheckException {
+    Assert.assertEquals(spellChecker(Integer.MAX_VALUE).lookup("wrold", Verbosity.TOP, 2),
+        spellChecker(1).lookup("wrold", Verbosity.TOP, 2));
+    Assert.assertEquals(1, spellChecker(1).lookup("wrold", Verbosity.ALL, 2).size());
+  }
+
+  private static SpellCheckSettings settings(int topK) {
+    return SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .editFactor(1)
+        .topK(topK)
+        .build();
+  }
+
+  private static SymSpellCheck spellChecker(int topK) {
+    return new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), settings(topK));
+  }
+}
@@ -0,0 +1,102 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestWordBreakPruning {
+
+  private static final String[] PHRASES = {
+      "thequickbrownfoxjumpsoverthelazydog",
+      "#ThrowbackThursdayWithMyBestFriendsAtTheBeach",
+      "https://www.example.com/articles/how-to-learn-spelling?id=4711",
+      "itwasabrightcolddayinaprilandtheclockswerestrikingthirteen"
+  };
+
+  private static DataHolder dataHolder;
+  private static SymSpellCheck symSpellCheck;
+  private static SymSpellCheck unprunedSpellCheck;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = newSettings();
+    dataHolder = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
+    symSpellCheck = newSpellCheck(dataHolder, spellCheckSettings);
+
+    // a holder which cannot tell the prefixes of the terms, so every part is looked up
+    SpellCheckSettings unprunedSettings = newSettings();
+    DataHolder unpruned = new InMemoryDataHolder(unprunedSettings, new Murmur3HashFunction()) {
+      @Override
+      public boolean isTermPrefix(String prefix) {
+        return true;
+      }
+    };
+    unprunedSpellCheck = newSpellCheck(unpruned, unprunedSettings);
+  }
+
+  @Test
+  public void testTermPrefix() throws SpellCheckException {
+    Assert.assertTrue(dataHolder.isTermPrefix(""));
+    Assert.assertTrue(dataHolder.isTermPrefix("knowl"));
+    Assert.assertTrue(dataHolder.isTermPrefix("knowledge"));
+    Assert.assertFalse(dataHolder.isTermPrefix("knowledgex"));
+    Assert.assertFalse(dataHolder.isTermPrefix("xqz"));
+
+    DataHolder empty = new InMemoryDataHolder(newSettings(), new Murmur3HashFunction());
+    Assert.assertFalse(empty.isTermPrefix(""));
+    empty.addItem(new DictionaryItem("spell", 10.0, -1.0));
+    Assert.assertTrue(empty.isTermPrefix("spe"));
+    empty.clear();
+    Assert.assertFalse(empty.isTermPrefix("spe"));
+  }
+
+  @Test
+  public void testPrunedSegmentationIsUnchanged() throws SpellCheckException {
+    symSpellCheck.resetStatistics();
+    unprunedSpellCheck.resetStatistics();
+    for (String phrase : PHRASES) {
+      for (int maxSegmentationWordLength : new int[]{7, 12, 30}) {
+        Assert.assertEquals(phrase,
+            unprunedSpellCheck.wordBreakSegmentation(phrase, maxSegmentationWordLength, 2),
+            symSpellCheck.wordBreakSegmentation(phrase, maxSegmentationWordLength, 2));
+      }
+    }
+    Assert.assertTrue(symSpellCheck.getSkippedSegmentLookups() > 0);
+    Assert.assertEquals(0, unprunedSpellCheck.getSkippedSegmentLookups());
+  }
+
+  private static SpellCheckSettings newSettings() {
+    return SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .build();
+  }
+
+  private static SymSpellCheck newSpellCheck(DataHolder dataHolder,
+      SpellCheckSettings spellCheckSettings) throws IOException, SpellCheckException {
+    ClassLoader classLoader = TestWordBreakPruning.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    return new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+}
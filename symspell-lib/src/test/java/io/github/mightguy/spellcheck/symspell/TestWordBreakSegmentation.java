@@ -0,0 +1,94 @@
+package io.github.mightguy.spellcheck.symspell;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.common.Composition;
+import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckExceptionCode;
+import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
+import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class TestWordBreakSegmentation {
+
+  private static SymSpellCheck symSpellCheck;
+
+  @BeforeClass
+  public static void setup() throws IOException, SpellCheckException {
+    SpellCheckSettings spellCheckSettings = SpellCheckSettings.builder()
+        .maxEditDistance(2)
+        .build();
+    DataHolder dataHolder = new InMemoryDataHolder(spellCheckSettings,
+        new Murmur3HashFunction());
+    ClassLoader classLoader = TestWordBreakSegmentation.class.getClassLoader();
+    File file = new File(
+        classLoader.getResource("frequency_dictionary_en_30_000.txt").getFile());
+    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] arr = line.split("\\s+");
+        dataHolder.addItem(new DictionaryItem(arr[0], Double.parseDouble(arr[1]), -1.0));
+      }
+    }
+    symSpellCheck = new SymSpellCheck(dataHolder,
+        new WeightedDamerauLevenshteinDistance(1, 1, 1, 1, null), spellCheckSettings);
+  }
+
+  @Test
+  public void testCapitalizedParts() throws SpellCheckException {
+    Composition composition = symSpellCheck.wordBreakSegmentation("Thequick BrownFox jumps", 10,
+        2);
+    Assert.assertEquals("the quick brown fox jumps", composition.getSegmentedString());
+    Assert.assertEquals("The quick Brown Fox jumps", composition.getCorrectedString());
+    Assert.assertEquals(0, composition.getDistanceSum());
+    Assert.assertEquals(-49.727670965326745, composition.getLogProbSum(), 1e-9);
+  }
+
+  @Test
+  public void testExistingWhitespace() throws SpellCheckException {
+    Composition composition = symSpellCheck.wordBreakSegmentation("the  lazy\tdog", 10, 2);
+    Assert.assertEquals("the lazy dog", composition.getSegmentedString());
+    Assert.assertEquals("the lazy dog", composition.getCorrectedString());
+    Assert.assertEquals(1, composition.getDistanceSum());
+    Assert.assertEquals(-28.62365219368614, composition.getLogProbSum(), 1e-9);
+  }
+
+  @Test
+  public void testParallelSegmentation() throws SpellCheckException {
+    StringBuilder phrase = new StringBuilder();
+    for (int i = 0; phrase.length() < 3000; i++) {
+      phrase.append(i % 3 == 0 ? "thequick brownfox" : "jumpsover thelazydog. ");
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Assert.assertEquals(symSpellCheck.wordBreakSegmentation(phrase.toString(), 12, 2),
+          symSpellCheck.wordBreakSegmentation(phrase.toString(), 12, 2, pool));
+      Assert.assertEquals(symSpellCheck.wordBreakSegmentation("Thequick BrownFox jumps", 10, 2),
+          symSpellCheck.wordBreakSegmentation("Thequick BrownFox jumps", 10, 2, pool));
+      try {
+        symSpellCheck.wordBreakSegmentation(phrase.toString(), 12, 3, pool);
+        Assert.fail("the edit distance is above the maximum of the settings");
+      } catch (SpellCheckException ex) {
+        Assert.assertEquals(SpellCheckExceptionCode.LOOKUP_ERROR, ex.getSpellCheckExceptionCode());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testNothingLeftAfterNormalization() throws SpellCheckException {
+    Assert.assertEquals(new Composition(), symSpellCheck.wordBreakSegmentation("--", 10, 2));
+  }
+}
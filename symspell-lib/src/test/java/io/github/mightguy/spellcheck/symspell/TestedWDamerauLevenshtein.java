@@ -4,6 +4,7 @@ package io.github.mightguy.spellcheck.symspell;
 import io.github.mightguy.spellcheck.symspell.api.StringDistance;
 import io.github.mightguy.spellcheck.symspell.common.QwertyDistance;
 import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -58,5 +59,42 @@ public class TestedWDamerauLevenshtein {
     Assert.assertEquals(0, customDamerauLevenshtein.getDistance("slime", "slime"), 0.01);
   }
 
+  @Test
+  public void testMaxEditDistance() {
+    Assert.assertEquals(1, damerauLevenshtein.getDistance("playrs", "players", 1), 0.01);
+    Assert.assertEquals(-1, damerauLevenshtein.getDistance("playrs", "player", 1), 0.01);
+    Assert.assertEquals(-1, damerauLevenshtein.getDistance("abcdefgh", "ab", 2), 0.01);
+    Assert.assertEquals(-1, damerauLevenshtein.getDistance("abcdef", "uvwxyz", 3), 0.01);
+    Assert.assertEquals(3, damerauLevenshtein.getDistance("", "abc", 3), 0.01);
+    Assert.assertEquals(0.89, wdamerauLevenshtein.getDistance("sommer", "summer", 1), 0.01);
+    Assert.assertEquals(-1, wdamerauLevenshtein.getDistance("cool", "cola", 1.5), 0.01);
+  }
+
+  @Test
+  public void testMaxEditDistanceMatchesFullDistance() {
+    Random random = new Random(42);
+    StringDistance[] distances = {damerauLevenshtein, wdamerauLevenshtein,
+        customDamerauLevenshtein};
+    double[] maxEditDistances = {0, 0.5, 0.9, 1, 1.8, 2, 3, 10};
+    for (int n = 0; n < 20000; n++) {
+      String source = randomWord(random);
+      String target = random.nextInt(4) == 0 ? source : randomWord(random);
+      for (StringDistance distance : distances) {
+        double full = distance.getDistance(source, target);
+        for (double maxEditDistance : maxEditDistances) {
+          Assert.assertEquals(source + " " + target + " " + maxEditDistance,
+              full > maxEditDistance ? -1 : full,
+              distance.getDistance(source, target, maxEditDistance), 0);
+        }
+      }
+    }
+  }
 
+  private static String randomWord(Random random) {
+    char[] chars = new char[random.nextInt(10)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = "abcdes".charAt(random.nextInt(6));
+    }
+    return new String(chars);
+  }
 }
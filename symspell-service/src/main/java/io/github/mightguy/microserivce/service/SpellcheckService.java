@@ -6,7 +6,7 @@ import io.github.mightguy.spellcheck.symspell.api.CharDistance;
 import io.github.mightguy.spellcheck.symspell.api.StringDistance;
 import io.github.mightguy.spellcheck.symspell.common.QwertyDistance;
 import io.github.mightguy.spellcheck.symspell.common.QwertzDistance;
-import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
+import io.github.mightguy.spellcheck.symspell.common.StringDistanceFactory;
 import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.PostConstruct;
@@ -30,7 +30,7 @@ public class SpellcheckService {
   @Autowired
   public SpellcheckService(SpellcheckConfiguration configuration) {
     this.configuration = configuration;
-    stringDistance = new WeightedDamerauLevenshteinDistance(configuration.getDeletionWeight(),
+    stringDistance = StringDistanceFactory.create(configuration.getDeletionWeight(),
         configuration.getInsertionWeight(), configuration.getReplaceWeight(),
         configuration.getTranspositionWeight(),
         getCharDistanceObject(configuration.getCharDistance()));
@@ -6,23 +6,31 @@ import io.github.mightguy.spellcheck.symspell.api.DataHolder;
 import io.github.mightguy.spellcheck.symspell.api.SpellChecker;
 import io.github.mightguy.spellcheck.symspell.api.StringDistance;
 import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
-import io.github.mightguy.spellcheck.symspell.common.Murmur3HashFunction;
+import io.github.mightguy.spellcheck.symspell.common.HashAlgorithm;
+import io.github.mightguy.spellcheck.symspell.common.LookupOptions;
+import io.github.mightguy.spellcheck.symspell.common.LookupResult;
 import io.github.mightguy.spellcheck.symspell.common.SpellCheckSettings;
+import io.github.mightguy.spellcheck.symspell.common.StringDistanceFactory;
 import io.github.mightguy.spellcheck.symspell.common.SuggestionItem;
 import io.github.mightguy.spellcheck.symspell.common.Verbosity;
-import io.github.mightguy.spellcheck.symspell.common.WeightedDamerauLevenshteinDistance;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import io.github.mightguy.spellcheck.symspell.impl.ConcurrentDataHolder;
 import io.github.mightguy.spellcheck.symspell.impl.InMemoryDataHolder;
 import io.github.mightguy.spellcheck.symspell.impl.SymSpellCheck;
 import io.github.mightguy.symspell.solr.eventlistner.CustomSpellCheckListner;
+import io.github.mightguy.symspell.solr.eventlistner.DictionarySource;
+import io.github.mightguy.symspell.solr.eventlistner.PersistedIndex;
 import io.github.mightguy.symspell.solr.utils.Constants;
 import io.github.mightguy.symspell.solr.utils.SearchRequestUtil;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -44,6 +52,7 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
   private SpellChecker spellChecker;
   private CustomSpellCheckListner customSpellCheckListner;
   private int threshold = 0;
+  private long lookupBudgetMs = 0;
 
   public static final String COMPONENT_NAME = "custom_spellcheck";
 
@@ -83,15 +92,22 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
     SolrParams params = rb.req.getParams();
     String q = params.get(Constants.SPELLCHECK_Q, params.get(CommonParams.Q));
     boolean sow = params.getBool(Constants.SPELLCHECK_SOW, true);
-    List<SuggestionItem> suggestions;
+    LookupOptions lookupOptions = LookupOptions.withBudget(
+        params.getLong(Constants.SPELLCHECK_BUDGET_MS, lookupBudgetMs), TimeUnit.MILLISECONDS);
+    LookupResult lookupResult;
     try {
       if (sow) {
-        suggestions = spellChecker.lookupCompound(q);
+        lookupResult = spellChecker.lookupCompound(q,
+            spellChecker.getSpellCheckSettings().getMaxEditDistance(), true, lookupOptions);
       } else {
-        suggestions = spellChecker.lookupCompound(q, 2, false);
+        lookupResult = spellChecker.lookupCompound(q, 2, false, lookupOptions);
       }
-      if (!CollectionUtils.isEmpty(suggestions)) {
-        addToResponse(rb, suggestions);
+      if (lookupResult.isTruncated()) {
+        log.debug("Spellcheck of [{}] truncated after {} ms", q,
+            TimeUnit.NANOSECONDS.toMillis(lookupOptions.getBudgetNanos()));
+      }
+      if (!CollectionUtils.isEmpty(lookupResult.getSuggestions())) {
+        addToResponse(rb, lookupResult.getSuggestions(), lookupResult.isTruncated());
       }
     } catch (SpellCheckException ex) {
       log.error("exception occured while looking for spelling suggestions");
@@ -101,11 +117,12 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
   }
 
 
-  private void addToResponse(ResponseBuilder rb, List<SuggestionItem> suggestions) {
-    rb.rsp.add("spell_suggestions", toNamedList(suggestions));
+  private void addToResponse(ResponseBuilder rb, List<SuggestionItem> suggestions,
+      boolean truncated) {
+    rb.rsp.add("spell_suggestions", toNamedList(suggestions, truncated));
   }
 
-  private NamedList toNamedList(List<SuggestionItem> suggestionItems) {
+  private NamedList toNamedList(List<SuggestionItem> suggestionItems, boolean truncated) {
     NamedList result = new NamedList();
     if (CollectionUtils.isEmpty(suggestionItems)) {
       return result;
@@ -116,6 +133,7 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
 
     result.add("spellcheck", suggestions);
     result.add("correctlySpelled", suggestionItems.get(0).getDistance() == 0);
+    result.add("truncated", truncated);
     return result;
   }
 
@@ -168,9 +186,7 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
               new String[0], toObjectArr());
     }
 
-    return new WeightedDamerauLevenshteinDistance(spellCheckSettings.getDeletionWeight(),
-        spellCheckSettings.getInsertionWeight(), spellCheckSettings.getReplaceWeight(),
-        spellCheckSettings.getTranspositionWeight(), charDistance);
+    return StringDistanceFactory.create(spellCheckSettings, charDistance);
   }
 
   private void addSpellChecker(SolrCore core, NamedList spellcheckerNL) {
@@ -185,6 +201,7 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
         .maxEditDistance(
             SearchRequestUtil.getFromNamedList(spellcheckerNL, "maxEditDistance", 2.0d))
         .prefixLength(SearchRequestUtil.getFromNamedList(spellcheckerNL, "prefixLength", 7))
+        .topK(SearchRequestUtil.getFromNamedList(spellcheckerNL, "topK", Integer.MAX_VALUE))
         .verbosity(Verbosity.valueOf(
             SearchRequestUtil
                 .getFromNamedList(spellcheckerNL, "verbosity", Verbosity.ALL.name())))
@@ -193,57 +210,101 @@ public class SpellcheckComponent extends SearchComponent implements SolrCoreAwar
             SearchRequestUtil.getFromNamedList(spellcheckerNL, "createBigram", true))
         .keySplitRegex(
             SearchRequestUtil.getFromNamedList(spellcheckerNL, "bigramSplitRegex", "\\s+"))
+        .hashAlgorithm(HashAlgorithm.valueOf(SearchRequestUtil
+            .getFromNamedList(spellcheckerNL, "hashAlgorithm", HashAlgorithm.MURMUR3_32.name())))
         .build();
 
+    lookupBudgetMs = SearchRequestUtil
+        .<Number>getFromNamedList(spellcheckerNL, "lookupBudgetMs", 0).longValue();
+
     StringDistance stringDistance = getStringDistance(spellcheckerNL, spellCheckSettings, core);
 
-    DataHolder dataHolder = new InMemoryDataHolder(spellCheckSettings, new Murmur3HashFunction());
+    String unigramsFile = SearchRequestUtil.getFromNamedList(spellcheckerNL, "unigrams_file", null);
+    String bigramsFile = SearchRequestUtil.getFromNamedList(spellcheckerNL, "bigrams_file", null);
+    String exclusionsFile = SearchRequestUtil
+        .getFromNamedList(spellcheckerNL, "exclusions_file", null);
+    String exclustionnFileSeperator = SearchRequestUtil
+        .getFromNamedList(spellcheckerNL, "exclusions_file_sp", "\\s+");
+
+    DictionarySource dictionarySource = DictionarySource.forConfigName(SearchRequestUtil
+        .getFromNamedList(spellcheckerNL, "dictionarySource", "termVectors"));
+
+    // with swapOnBuild every build fills a new dictionary, which is not modified once swapped in,
+    // segments are updated in place instead
+    Supplier<DataHolder> dataHolderFactory = null;
+    DataHolder dataHolder;
+    if (Boolean.parseBoolean((String) spellcheckerNL.get("swapOnBuild"))
+        && dictionarySource != DictionarySource.SEGMENTS) {
+      dataHolderFactory = () -> {
+        DataHolder newDataHolder = new InMemoryDataHolder(spellCheckSettings);
+        loadDefault(unigramsFile, bigramsFile, exclusionsFile, newDataHolder, core,
+            exclustionnFileSeperator);
+        return newDataHolder;
+      };
+      dataHolder = new InMemoryDataHolder(spellCheckSettings);
+    } else {
+      // the listeners add the terms of new searchers while requests are looked up
+      dataHolder = new ConcurrentDataHolder(spellCheckSettings);
+    }
 
     spellChecker = new SymSpellCheck(dataHolder, stringDistance, spellCheckSettings);
 
     String[] fieldList = SearchRequestUtil.getFromNamedList(spellcheckerNL, "field_names", "")
         .split("\\s+");
 
+    // with persistIndex the first searcher loads the dictionary saved in the data dir, together
+    // with the default files, instead of building it
+    PersistedIndex persistedIndex = null;
+    if (Boolean.parseBoolean((String) spellcheckerNL.get("persistIndex"))) {
+      if (dictionarySource == DictionarySource.SEGMENTS) {
+        log.warn("persistIndex is not supported with dictionarySource segments, ignored");
+      } else {
+        boolean swapOnBuild = dataHolderFactory != null;
+        persistedIndex = new PersistedIndex(new File(core.getDataDir(), "spellcheck"),
+            SearchRequestUtil.getFromNamedList(spellcheckerNL, "name", "default"),
+            () -> swapOnBuild ? new InMemoryDataHolder(spellCheckSettings)
+                : new ConcurrentDataHolder(spellCheckSettings),
+            newDataHolder -> loadDefault(unigramsFile, bigramsFile, exclusionsFile, newDataHolder,
+                core, exclustionnFileSeperator));
+      }
+    }
+
     // Register event listeners for this SpellChecker
-    customSpellCheckListner = new CustomSpellCheckListner(core, spellChecker, fieldList);
+    customSpellCheckListner = new CustomSpellCheckListner(core, spellChecker, fieldList,
+        dataHolderFactory, dictionarySource, persistedIndex);
     core.registerFirstSearcherListener(customSpellCheckListner);
 
-    String unigramsFile = SearchRequestUtil.getFromNamedList(spellcheckerNL, "unigrams_file", null);
-    String bigramsFile = SearchRequestUtil.getFromNamedList(spellcheckerNL, "bigrams_file", null);
-    String exclusionsFile = SearchRequestUtil
-        .getFromNamedList(spellcheckerNL, "exclusions_file", null);
-    String exclustionnFileSeperator = SearchRequestUtil
-        .getFromNamedList(spellcheckerNL, "exclusions_file_sp", "\\s+");
-    loadDefault(unigramsFile, bigramsFile, exclusionsFile, spellChecker, core,
-        exclustionnFileSeperator);
+    if (persistedIndex == null) {
+      loadDefault(unigramsFile, bigramsFile, exclusionsFile, dataHolder, core,
+          exclustionnFileSeperator);
+    }
     boolean buildOnCommit = Boolean.parseBoolean((String) spellcheckerNL.get("buildOnCommit"));
     boolean buildOnOptimize = Boolean.parseBoolean((String) spellcheckerNL.get("buildOnOptimize"));
     if (buildOnCommit || buildOnOptimize) {
       log.info("Registering newSearcher listener for spellChecker");
-      core.registerNewSearcherListener(
-          new CustomSpellCheckListner(core, spellChecker, fieldList));
+      // the same listener, which keeps the segments already added
+      core.registerNewSearcherListener(customSpellCheckListner);
     }
 
   }
 
   private void loadDefault(String unigramsFile, String bigramsFile, String exclusionsFile,
-      SpellChecker spellChecker,
+      DataHolder dataHolder,
       SolrCore core, String exclusionListSperatorRegex) {
     try {
       if (!StringUtils.isEmpty(unigramsFile)) {
-        loadUniGramFile(core.getResourceLoader().openResource(unigramsFile),
-            spellChecker.getDataHolder());
+        loadUniGramFile(core.getResourceLoader().openResource(unigramsFile), dataHolder);
       }
 
       if (!StringUtils.isEmpty(bigramsFile)) {
-        loadBiGramFile(core.getResourceLoader().openResource(bigramsFile),
-            spellChecker.getDataHolder());
+        loadBiGramFile(core.getResourceLoader().openResource(bigramsFile), dataHolder);
       }
 
       if (!StringUtils.isEmpty(exclusionsFile)) {
-        loadExclusions(core.getResourceLoader().openResource(exclusionsFile),
-            spellChecker.getDataHolder(), exclusionListSperatorRegex);
+        loadExclusions(core.getResourceLoader().openResource(exclusionsFile), dataHolder,
+            exclusionListSperatorRegex);
       }
+      dataHolder.freeze();
 
     } catch (SpellCheckException | IOException ex) {
       log.error("Error occured while loading default Configs for Spellcheck");
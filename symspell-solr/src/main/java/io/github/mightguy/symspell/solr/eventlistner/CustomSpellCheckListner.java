@@ -1,29 +1,45 @@
 
 package io.github.mightguy.symspell.solr.eventlistner;
 
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
 import io.github.mightguy.spellcheck.symspell.api.SpellChecker;
 import io.github.mightguy.spellcheck.symspell.common.DictionaryItem;
+import io.github.mightguy.spellcheck.symspell.common.TermPool;
 import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.CloseHook;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.core.SolrEventListener;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
 
 @Slf4j
 public class CustomSpellCheckListner implements SolrEventListener {
@@ -31,6 +47,20 @@ public class CustomSpellCheckListner implements SolrEventListener {
   private final SolrCore core;
   private final SpellChecker checker;
   private final List<String> fieldArr;
+  private final Supplier<DataHolder> dataHolderFactory;
+  private final DictionarySource dictionarySource;
+  private final PersistedIndex persistedIndex;
+  /**
+   * Terms and frequencies added per segment core, only filled for {@link
+   * DictionarySource#SEGMENTS}. The terms are pooled, so a term held by several segments is kept
+   * once and every segment costs an int and a double per term.
+   */
+  private final Map<Object, SegmentTerms> segmentTerms = new HashMap<>();
+  private TermPool segmentTermPool = new TermPool();
+  /**
+   * Set once the core closes, stops a build running meanwhile.
+   */
+  private volatile boolean closed;
 
   /**
    * Constructor for listner
@@ -39,9 +69,64 @@ public class CustomSpellCheckListner implements SolrEventListener {
    * @param fieldArr
    */
   public CustomSpellCheckListner(SolrCore core, SpellChecker checker, String[] fieldArr) {
+    this(core, checker, fieldArr, null, DictionarySource.TERM_VECTORS);
+  }
+
+  /**
+   * Constructor for a listner which builds every reload into a new dictionary and swaps it in
+   * once complete, see {@link SpellChecker#swapDataHolder(DataHolder)}.
+   *
+   * @param core              the core
+   * @param checker           the spell checker to reload
+   * @param fieldArr          fields to build the dictionary from
+   * @param dataHolderFactory creates the empty dictionaries, null to add the terms to the
+   *                          dictionary of the spell checker instead
+   * @param dictionarySource  where the terms of the fields are read from, with {@link
+   *                          DictionarySource#SEGMENTS} the factory is not used and the dictionary
+   *                          of the spell checker has to support {@link DataHolder#removeItem}
+   */
+  public CustomSpellCheckListner(SolrCore core, SpellChecker checker, String[] fieldArr,
+      Supplier<DataHolder> dataHolderFactory, DictionarySource dictionarySource) {
+    this(core, checker, fieldArr, dataHolderFactory, dictionarySource, null);
+  }
+
+  /**
+   * Constructor for a listner which also saves every build to a persisted index. As first
+   * searcher listner it loads the dictionary saved for the index version, or rebuilds it in the
+   * background, so the first searcher does not wait for the build. A rebuild still running when
+   * the core closes is stopped.
+   *
+   * @param core              the core
+   * @param checker           the spell checker to reload
+   * @param fieldArr          fields to build the dictionary from
+   * @param dataHolderFactory creates the empty dictionaries, null to add the terms to the
+   *                          dictionary of the spell checker instead
+   * @param dictionarySource  where the terms of the fields are read from, not {@link
+   *                          DictionarySource#SEGMENTS} with a persisted index
+   * @param persistedIndex    where the dictionary is saved, null to keep it in memory only
+   */
+  public CustomSpellCheckListner(SolrCore core, SpellChecker checker, String[] fieldArr,
+      Supplier<DataHolder> dataHolderFactory, DictionarySource dictionarySource,
+      PersistedIndex persistedIndex) {
     this.core = core;
     this.checker = checker;
     this.fieldArr = Arrays.asList(fieldArr);
+    this.dataHolderFactory = dataHolderFactory;
+    this.dictionarySource = dictionarySource;
+    this.persistedIndex = persistedIndex;
+    if (persistedIndex != null) {
+      core.addCloseHook(new CloseHook() {
+        @Override
+        public void preClose(SolrCore core) {
+          close();
+        }
+
+        @Override
+        public void postClose(SolrCore core) {
+          // Nothing to do after the close
+        }
+      });
+    }
   }
 
   @Override
@@ -57,6 +142,10 @@ public class CustomSpellCheckListner implements SolrEventListener {
   @Override
   public void newSearcher(SolrIndexSearcher newSearcher, SolrIndexSearcher currentSearcher) {
     // firstSearcher event Or New Searcher Event
+    if (currentSearcher == null && persistedIndex != null) {
+      loadPersisted(newSearcher);
+      return;
+    }
     try {
       log.info("Loading spell index for spellchecker: "
           + checker);
@@ -76,48 +165,285 @@ public class CustomSpellCheckListner implements SolrEventListener {
   }
 
   /**
-   * Relod method of spellcheck listner
+   * Relod method of spellcheck listner. With a dictionary factory, the terms go to a new
+   * dictionary which replaces the one of the checker once it is complete, so the lookups meanwhile
+   * keep using the old dictionary. With {@link DictionarySource#SEGMENTS} only the segments
+   * changed since the last reload are added to or removed from the dictionary of the checker.
    * @param newSearcher
    * @param checker
    * @throws IOException
    * @throws SpellCheckException
    */
-  public void reload(SolrIndexSearcher newSearcher, SpellChecker checker)
+  public synchronized void reload(SolrIndexSearcher newSearcher, SpellChecker checker)
       throws IOException, SpellCheckException {
 
     long time = System.currentTimeMillis();
+    if (dictionarySource == DictionarySource.SEGMENTS) {
+      updateSegments(newSearcher, checker.getDataHolder());
+      log.info("Data for SpellChecker  was updated. Time={} ms",
+          (System.currentTimeMillis() - time));
+      return;
+    }
+    DataHolder dataHolder = dataHolderFactory != null ? dataHolderFactory.get()
+        : checker.getDataHolder();
+    build(newSearcher, checker, dataHolder, dataHolderFactory != null);
+
+    log.info("Data for SpellChecker  was populated. Time={} ms",
+        (System.currentTimeMillis() - time));
+  }
+
+  /**
+   * Swap in the dictionary saved for the version of the first searcher, or else swap in the
+   * unigram, bigram and exclusion files alone and rebuild the dictionary from the index on the
+   * async executor of the core. Lookups meanwhile are served from the files.
+   */
+  private void loadPersisted(SolrIndexSearcher newSearcher) {
+    long time = System.currentTimeMillis();
+    DataHolder dataHolder = persistedIndex.load(newSearcher.getIndexReader().getVersion());
+    if (dataHolder != null) {
+      checker.swapDataHolder(dataHolder);
+      log.info("Spellcheck index loaded. Time={} ms", (System.currentTimeMillis() - time));
+      return;
+    }
 
+    checker.swapDataHolder(persistedIndex.newDataHolder());
+    core.runAsync(this::rebuild);
+  }
+
+  private void rebuild() {
+    // the searcher is taken under the lock, so the rebuild also replaces any dictionary which a
+    // reload of a newer searcher built and saved meanwhile
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      long time = System.currentTimeMillis();
+      RefCounted<SolrIndexSearcher> searcher = null;
+      try {
+        searcher = core.getSearcher();
+        build(searcher.get(), checker, persistedIndex.newDataHolder(), true);
+        log.info("Spellcheck index rebuilt. Time={} ms", (System.currentTimeMillis() - time));
+      } catch (IOException | SpellCheckException | SolrException e) {
+        if (closed) {
+          log.info("Spellcheck index rebuild stopped, the core is closing");
+        } else {
+          log.error("Exception in rebuilding spell check index for spellchecker: ", e);
+        }
+      } finally {
+        if (searcher != null) {
+          searcher.decref();
+        }
+      }
+    }
+  }
+
+  /**
+   * Stop a build running meanwhile and wait until it released its searcher.
+   */
+  private void close() {
+    closed = true;
+    synchronized (this) {
+      log.debug("Spellcheck listner of core {} closed", core.getName());
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new SolrException(ErrorCode.SERVICE_UNAVAILABLE,
+          "Core " + core.getName() + " is closing");
+    }
+  }
+
+  /**
+   * Add the terms of the fields to the dictionary, swap it in if it is a new one, and save the
+   * dictionary of the checker to the persisted index.
+   */
+  private void build(SolrIndexSearcher newSearcher, SpellChecker checker, DataHolder dataHolder,
+      boolean swap) throws IOException, SpellCheckException {
     DirectoryReader productsIndexReader = newSearcher.getIndexReader();
     IndexSchema schema = newSearcher.getCore().getLatestSchema();
-    CharsRefBuilder charsRefBuilder = new CharsRefBuilder();
     for (String field : newSearcher.getFieldNames()) {
       if (!fieldArr.contains(field)) {
         continue;
       }
 
+      checkOpen();
       FieldType type = schema.getField(field).getType();
-      int insertionsCount = 0;
-      for (int docID = 0; docID < productsIndexReader.maxDoc(); docID++) {
-        Terms terms = productsIndexReader.getTermVector(docID, field);
-        if (terms == null) {
-          continue;
-        }
+      int insertionsCount = dictionarySource == DictionarySource.TERMS
+          ? addIndexTerms(productsIndexReader, field, type, dataHolder)
+          : addTermVectors(productsIndexReader, field, type, dataHolder);
+      log.info("Spellcheck Dictionary populated for Field Name {}, Count {}", field,
+          insertionsCount);
+    }
+    dataHolder.freeze();
+    checkOpen();
+    if (swap) {
+      checker.swapDataHolder(dataHolder);
+    }
+    if (persistedIndex != null) {
+      persistedIndex.save(checker.getDataHolder(), productsIndexReader.getVersion());
+    }
+  }
+
+  /**
+   * Add the terms of the segments not seen before and remove those of the segments which are gone,
+   * after a merge the terms of the merged segment are added before those of its sources are
+   * removed. A segment is told by its core, which stays the same when documents are deleted.
+   */
+  private void updateSegments(SolrIndexSearcher newSearcher, DataHolder dataHolder)
+      throws IOException, SpellCheckException {
+    IndexSchema schema = newSearcher.getCore().getLatestSchema();
+    Set<Object> liveSegments = new HashSet<>();
+    int added = 0;
+    for (LeafReaderContext leaf : newSearcher.getIndexReader().leaves()) {
+      LeafReader reader = leaf.reader();
+      CacheHelper cacheHelper = reader.getCoreCacheHelper();
+      Object key = cacheHelper != null ? cacheHelper.getKey() : reader;
+      liveSegments.add(key);
+      if (segmentTerms.containsKey(key)) {
+        continue;
+      }
 
-        for (TermsEnum iterator = terms.iterator(); iterator.next() != null; ) {
-          BytesRef term = iterator.term();
-          charsRefBuilder.clear();
-          type.indexedToReadable(term, charsRefBuilder);
-          insertionsCount++;
-          checker.getDataHolder().addItem(new DictionaryItem(
-                  charsRefBuilder.toString().trim(), (double) iterator.totalTermFreq(), 0.0));
+      Map<String, Double> frequencies = new HashMap<>();
+      for (String field : fieldArr) {
+        SchemaField schemaField = schema.getFieldOrNull(field);
+        if (schemaField != null) {
+          collectIndexTerms(reader, field, schemaField.getType(), frequencies);
         }
       }
-      log.info("Spellcheck Dictionary populated for Field Name {}, Count {}", field,
-          insertionsCount);
+      SegmentTerms terms = new SegmentTerms(frequencies.size());
+      int term = 0;
+      for (Map.Entry<String, Double> frequency : frequencies.entrySet()) {
+        dataHolder.addItem(new DictionaryItem(frequency.getKey(), frequency.getValue(), 0.0));
+        terms.termIds[term] = segmentTermPool.add(frequency.getKey());
+        terms.frequencies[term++] = frequency.getValue();
+      }
+      segmentTerms.put(key, terms);
+      added++;
     }
 
-    log.info("Data for SpellChecker  was populated. Time={} ms",
-        (System.currentTimeMillis() - time));
+    int removed = 0;
+    for (Iterator<Map.Entry<Object, SegmentTerms>> segments =
+        segmentTerms.entrySet().iterator(); segments.hasNext(); ) {
+      Map.Entry<Object, SegmentTerms> segment = segments.next();
+      if (liveSegments.contains(segment.getKey())) {
+        continue;
+      }
+      SegmentTerms terms = segment.getValue();
+      for (int term = 0; term < terms.termIds.length; term++) {
+        dataHolder.removeItem(new DictionaryItem(segmentTermPool.get(terms.termIds[term]),
+            terms.frequencies[term], 0.0));
+      }
+      segments.remove();
+      removed++;
+    }
+    if (removed > 0) {
+      compactSegmentTermPool();
+    }
+    dataHolder.freeze();
+    log.info("Spellcheck Dictionary updated, {} segments added, {} segments removed", added,
+        removed);
+  }
+
+  /**
+   * Drop the pooled terms of the removed segments once the pool could hold twice the terms the
+   * live segments refer to.
+   */
+  private void compactSegmentTermPool() {
+    long liveTerms = 0;
+    for (SegmentTerms terms : segmentTerms.values()) {
+      liveTerms += terms.termIds.length;
+    }
+    if (segmentTermPool.size() <= 2 * liveTerms) {
+      return;
+    }
+    TermPool pool = new TermPool();
+    for (SegmentTerms terms : segmentTerms.values()) {
+      for (int term = 0; term < terms.termIds.length; term++) {
+        terms.termIds[term] = pool.add(segmentTermPool.get(terms.termIds[term]));
+      }
+    }
+    segmentTermPool = pool;
   }
 
+  /**
+   * Add the terms of the field from the term vectors of every document, with their frequency in
+   * the document. Requires the field to store term vectors.
+   */
+  private int addTermVectors(DirectoryReader reader, String field, FieldType type,
+      DataHolder dataHolder) throws IOException, SpellCheckException {
+    CharsRefBuilder charsRefBuilder = new CharsRefBuilder();
+    int insertionsCount = 0;
+    for (int docID = 0; docID < reader.maxDoc(); docID++) {
+      if ((docID & 0xfff) == 0) {
+        checkOpen();
+      }
+      Terms terms = reader.getTermVector(docID, field);
+      if (terms == null) {
+        continue;
+      }
+
+      for (TermsEnum iterator = terms.iterator(); iterator.next() != null; ) {
+        BytesRef term = iterator.term();
+        charsRefBuilder.clear();
+        type.indexedToReadable(term, charsRefBuilder);
+        insertionsCount++;
+        dataHolder.addItem(new DictionaryItem(
+            charsRefBuilder.toString().trim(), (double) iterator.totalTermFreq(), 0.0));
+      }
+    }
+    return insertionsCount;
+  }
+
+  /**
+   * Add the terms of the field from the terms index, walked once per segment, with their total
+   * frequency summed over the segments. The statistics of a segment still count its deleted
+   * documents until they are merged away.
+   */
+  private int addIndexTerms(DirectoryReader reader, String field, FieldType type,
+      DataHolder dataHolder) throws IOException, SpellCheckException {
+    Map<String, Double> frequencies = new LinkedHashMap<>();
+    for (LeafReaderContext leaf : reader.leaves()) {
+      checkOpen();
+      collectIndexTerms(leaf.reader(), field, type, frequencies);
+    }
+    for (Map.Entry<String, Double> frequency : frequencies.entrySet()) {
+      dataHolder.addItem(new DictionaryItem(frequency.getKey(), frequency.getValue(), 0.0));
+    }
+    return frequencies.size();
+  }
+
+  /**
+   * Sum the total frequencies of the terms of the field in a segment into the frequencies.
+   */
+  private static void collectIndexTerms(LeafReader reader, String field, FieldType type,
+      Map<String, Double> frequencies) throws IOException {
+    Terms terms = reader.terms(field);
+    if (terms == null) {
+      return;
+    }
+
+    CharsRefBuilder charsRefBuilder = new CharsRefBuilder();
+    for (TermsEnum iterator = terms.iterator(); iterator.next() != null; ) {
+      charsRefBuilder.clear();
+      type.indexedToReadable(iterator.term(), charsRefBuilder);
+      // the same as docFreq for fields indexed without frequencies
+      frequencies.merge(charsRefBuilder.toString().trim(),
+          (double) iterator.totalTermFreq(), Double::sum);
+    }
+  }
+
+  /**
+   * The pooled ids of the terms of a segment and their frequencies.
+   */
+  private static final class SegmentTerms {
+
+    private final int[] termIds;
+    private final double[] frequencies;
+
+    SegmentTerms(int size) {
+      termIds = new int[size];
+      frequencies = new double[size];
+    }
+  }
 }
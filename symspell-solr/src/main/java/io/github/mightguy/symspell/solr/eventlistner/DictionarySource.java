@@ -0,0 +1,45 @@
+package io.github.mightguy.symspell.solr.eventlistner;
+
+/**
+ * Where the {@link CustomSpellCheckListner} reads the terms of the dictionary fields from.
+ */
+public enum DictionarySource {
+
+  /**
+   * The term vectors of every document, the fields have to store them.
+   */
+  TERM_VECTORS("termVectors"),
+
+  /**
+   * The terms index of every segment, walked once per build.
+   */
+  TERMS("terms"),
+
+  /**
+   * The terms index of the segments not seen before. The terms of every segment are kept, so
+   * those of the segments merged away or dropped are removed from the dictionary again.
+   */
+  SEGMENTS("segments");
+
+  private final String configName;
+
+  DictionarySource(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * The source of a config value.
+   *
+   * @param configName {@code termVectors}, {@code terms} or {@code segments}
+   * @return the source
+   * @throws IllegalArgumentException for any other value
+   */
+  public static DictionarySource forConfigName(String configName) {
+    for (DictionarySource source : values()) {
+      if (source.configName.equals(configName)) {
+        return source;
+      }
+    }
+    throw new IllegalArgumentException("Unknown dictionarySource " + configName);
+  }
+}
@@ -0,0 +1,117 @@
+package io.github.mightguy.symspell.solr.eventlistner;
+
+import io.github.mightguy.spellcheck.symspell.api.DataHolder;
+import io.github.mightguy.spellcheck.symspell.exception.SpellCheckException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The dictionary of a spell checker saved next to the Lucene index, so a core load reuses it
+ * instead of rebuilding it. Every file is tagged with the version of the index reader it was built
+ * from, and only loaded for a reader of that version. Unlike the commit generation, the version
+ * also changes on soft commits.
+ */
+@Slf4j
+public class PersistedIndex {
+
+  private static final String SUFFIX = ".idx";
+
+  private final File directory;
+  private final String name;
+  private final Supplier<DataHolder> dataHolderFactory;
+  private final Consumer<DataHolder> defaults;
+
+  /**
+   * Constructor for a persisted index.
+   *
+   * @param directory         directory of the files, created on the first save
+   * @param name              name of the spell checker, the prefix of its files
+   * @param dataHolderFactory creates the empty dictionaries to load into or build
+   * @param defaults          adds the unigram, bigram and exclusion files to a dictionary built
+   *                          from scratch, they are part of the saved dictionaries
+   */
+  public PersistedIndex(File directory, String name, Supplier<DataHolder> dataHolderFactory,
+      Consumer<DataHolder> defaults) {
+    this.directory = directory;
+    this.name = name;
+    this.dataHolderFactory = dataHolderFactory;
+    this.defaults = defaults;
+  }
+
+  /**
+   * @return a new dictionary, holding only the default files
+   */
+  public DataHolder newDataHolder() {
+    DataHolder dataHolder = dataHolderFactory.get();
+    defaults.accept(dataHolder);
+    return dataHolder;
+  }
+
+  /**
+   * Load the dictionary saved for an index version.
+   *
+   * @param version version of the index reader
+   * @return the dictionary, null if none was saved for the version or it cannot be read
+   */
+  public DataHolder load(long version) {
+    File file = getFile(version);
+    if (!file.isFile()) {
+      log.info("No spellcheck index saved for index version {}", version);
+      return null;
+    }
+    DataHolder dataHolder = dataHolderFactory.get();
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+      dataHolder.load(in);
+      return dataHolder;
+    } catch (IOException | SpellCheckException ex) {
+      log.warn("Unable to load the spellcheck index {}", file, ex);
+      return null;
+    }
+  }
+
+  /**
+   * Save the dictionary for an index version, replacing the one saved before. A failure is logged
+   * only, the dictionary is rebuilt on the next core load then.
+   *
+   * @param dataHolder the dictionary
+   * @param version    version of the index reader the dictionary was built from
+   */
+  public void save(DataHolder dataHolder, long version) {
+    File file = getFile(version);
+    File tmpFile = new File(directory, name + ".tmp");
+    try {
+      Files.createDirectories(directory.toPath());
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()))) {
+        dataHolder.save(out);
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | SpellCheckException ex) {
+      log.warn("Unable to save the spellcheck index {}", file, ex);
+      return;
+    }
+
+    File[] oldFiles = directory.listFiles((dir, fileName) -> fileName.startsWith(name + "_")
+        && fileName.endsWith(SUFFIX) && !fileName.equals(file.getName()));
+    if (oldFiles != null) {
+      for (File oldFile : oldFiles) {
+        if (!oldFile.delete()) {
+          log.warn("Unable to delete the old spellcheck index {}", oldFile);
+        }
+      }
+    }
+  }
+
+  private File getFile(long version) {
+    return new File(directory, name + "_" + version + SUFFIX);
+  }
+}
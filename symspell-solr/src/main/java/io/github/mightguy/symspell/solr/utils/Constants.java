@@ -14,4 +14,5 @@ public final class Constants {
   public static final String SPELLCHECK_ENABLE = SPELLCHECK_PREFIX + "enable";
   public static final String SPELLCHECK_BUILD = SPELLCHECK_PREFIX + "build";
   public static final String SPELLCHECK_SOW = SPELLCHECK_PREFIX + "sow";
+  public static final String SPELLCHECK_BUDGET_MS = SPELLCHECK_PREFIX + "budgetMs";
 }